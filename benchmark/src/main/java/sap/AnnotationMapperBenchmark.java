@@ -0,0 +1,63 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import com.sap.mw.jco.JCO.FieldIterator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JCOAnnotationMapper#mapping(JCO.Field, Object)} and {@link JCOAnnotationMapper#input(JCO.Record, Object)} of one row.
+ *
+ * @author Kwanil
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AnnotationMapperBenchmark {
+	@Param({ "10", "50" })
+	int columns;
+	@Param({ "STRING", "DECIMAL", "DATE", "MIXED" })
+	String mix;
+	@Param({ "METHOD_HANDLE", "REFLECTION" })
+	JCOAccessorStrategy accessorStrategy;
+
+	JCOAnnotationMapper mapper;
+	JCO.Table table;
+	JCO.Table inputTable;
+	Object row;
+
+	@Setup(Level.Trial)
+	public void setUp() throws ReflectiveOperationException {
+		mapper = new JCOAnnotationMapper();
+		mapper.setAccessorStrategy(accessorStrategy);
+		table = SyntheticTables.table(mix, columns, 1);
+		table.setRow(0);
+		inputTable = SyntheticTables.table(mix, columns, 1);
+		inputTable.setRow(0);
+		row = SyntheticTables.rowClass(mix).newInstance();
+	}
+
+	@Benchmark
+	public Object mapping() {
+		for (FieldIterator fields = table.fields(); fields.hasMoreElements();) {
+			mapper.mapping(fields.nextField(), row);
+		}
+		return row;
+	}
+
+	@Benchmark
+	public Object rowMapping() {
+		mapper.rowMapping(table, row.getClass()).mapping(table, row);
+		return row;
+	}
+
+	@Benchmark
+	public JCO.Table input() {
+		mapper.input(inputTable, row);
+		return inputTable;
+	}
+}
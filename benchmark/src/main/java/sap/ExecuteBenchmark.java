@@ -0,0 +1,55 @@
+package sap;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JCOTemplate#executeTable(JCOInput, Class)} end-to-end against {@link JCOFakeBackend}.
+ * The fake fills the table on every call, so its cost is included.
+ *
+ * @author Kwanil
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ExecuteBenchmark {
+	private static final String FUNCTION = "Z_BENCH_EXECUTE";
+	private static final String TABLE = "ET_ROWS";
+
+	@Param({ "10", "1000", "100000" })
+	int rows;
+	@Param({ "10", "50" })
+	int columns;
+	@Param({ "MIXED" })
+	String mix;
+
+	JCOTemplate template;
+	JCOInput input;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		JCOFakeBackend backend = new JCOFakeBackend();
+		backend.function(FUNCTION).table(TABLE, rows, SyntheticTables.fakeColumns(mix, columns));
+		template = new JCOTemplate();
+		template.setSkipValidation(true);
+		template.setBackend(backend);
+		input = JCOInput.of(FUNCTION, TABLE);
+	}
+
+	@Benchmark
+	public List<?> executeTableObject() throws IOException, ReflectiveOperationException {
+		return template.executeTable(input, SyntheticTables.rowClass(mix));
+	}
+
+	@Benchmark
+	public List<HashMap> executeTableMap() throws IOException, ReflectiveOperationException {
+		return template.executeTable(input, HashMap.class);
+	}
+}
@@ -0,0 +1,54 @@
+package sap;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JCOTemplate#mappingJCOInput(JCOConnector, JCOInput)} of an input table of the Value Objects,
+ * including the function created for the connector.
+ *
+ * @author Kwanil
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class InputBenchmark {
+	private static final String FUNCTION = "Z_BENCH_INPUT";
+	private static final String TABLE = "IT_ROWS";
+
+	@Param({ "10", "1000", "100000" })
+	int rows;
+	@Param({ "STRING", "DECIMAL", "DATE", "MIXED" })
+	String mix;
+
+	JCOTemplate template;
+	JCOFakeBackend backend;
+	JCOFunctionTemplateCache functionTemplates;
+	JCOInput input;
+
+	@Setup(Level.Trial)
+	public void setUp() throws ReflectiveOperationException {
+		backend = new JCOFakeBackend();
+		backend.function(FUNCTION).table(TABLE, 0, SyntheticTables.fakeColumns(mix, SyntheticTables.BOUND_COLUMNS));
+		functionTemplates = new JCOFunctionTemplateCache();
+		template = new JCOTemplate();
+		List<Object> inputRows = SyntheticTables.inputRows(mix, rows);
+		input = JCOInput.of(FUNCTION).addInputTable(TABLE, inputRows);
+	}
+
+	@Benchmark
+	public JCOConnector mappingJCOInput() {
+		JCOConnector connector = JCOConnector.create(backend, functionTemplates);
+		try {
+			template.mappingJCOInput(connector, input);
+			return connector;
+		} finally {
+			connector.release();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JCOTemplate#mappingList(JCO.Table, Class)} of the maps, by {@link JCOMapMapper} and {@link JCORowMapMapper}.
+ *
+ * @author Kwanil
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MapMappingBenchmark {
+	@Param({ "10", "1000", "100000", "1000000" })
+	int rows;
+	@Param({ "10", "50" })
+	int columns;
+	@Param({ "STRING", "DECIMAL", "DATE", "MIXED" })
+	String mix;
+
+	JCOTemplate template;
+	JCO.Table table;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		table = SyntheticTables.table(mix, columns, rows);
+		template = new JCOTemplate();
+	}
+
+	@Benchmark
+	public List<HashMap> hashMap() throws ReflectiveOperationException {
+		return template.mappingList(table, HashMap.class);
+	}
+
+	@Benchmark
+	public List<JCORowMap> rowMap() throws ReflectiveOperationException {
+		return template.mappingList(table, JCORowMap.class);
+	}
+}
@@ -0,0 +1,56 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JCOTemplate#mappingList(JCO.Table, Class)} of the Value Objects, by {@link JCOAnnotationMapper} or the generated mappers.
+ *
+ * @author Kwanil
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ObjectMappingBenchmark {
+	@Param({ "10", "1000", "100000", "1000000" })
+	int rows;
+	@Param({ "10", "50" })
+	int columns;
+	@Param({ "STRING", "DECIMAL", "DATE", "MIXED" })
+	String mix;
+	@Param({ "false", "true" })
+	boolean generated;
+
+	JCOTemplate template;
+	// maps every table in parallel, so the mode is not switched on the shared template while measuring
+	JCOTemplate parallelTemplate;
+	JCO.Table table;
+	Class<?> rowClass;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		table = SyntheticTables.table(mix, columns, rows);
+		rowClass = SyntheticTables.rowClass(mix);
+		template = new JCOTemplate();
+		template.setGeneratedMappers(generated);
+		parallelTemplate = new JCOTemplate();
+		parallelTemplate.setGeneratedMappers(generated);
+		parallelTemplate.setParallelMappingThreshold(1);
+	}
+
+	@Benchmark
+	public List<?> mappingList() throws ReflectiveOperationException {
+		return template.mappingList(table, rowClass);
+	}
+
+	@Benchmark
+	public List<?> mappingListParallel() throws ReflectiveOperationException {
+		return parallelTemplate.mappingList(table, rowClass);
+	}
+}
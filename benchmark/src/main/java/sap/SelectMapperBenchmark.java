@@ -0,0 +1,45 @@
+package sap;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JCOTemplate#selectMapper(Class)} of every input object and input row.
+ *
+ * @author Kwanil
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SelectMapperBenchmark {
+	@Param({ "false", "true" })
+	boolean generated;
+
+	JCOTemplate template;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JCOTemplate();
+		template.setGeneratedMappers(generated);
+	}
+
+	@Benchmark
+	public JCOMapper<?> valueObject() {
+		return template.selectMapper(SyntheticTables.MixedRow.class);
+	}
+
+	@Benchmark
+	public JCOMapper<?> hashMap() {
+		return template.selectMapper(HashMap.class);
+	}
+
+	@Benchmark
+	public JCOMapper<?> rowMap() {
+		return template.selectMapper(JCORowMap.class);
+	}
+}
@@ -0,0 +1,204 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * In-memory tables of the benchmarks.
+ * The first 5 columns are bound to the fields of the row class of the type mix, the other columns are not mapped.
+ *
+ * @author Kwanil
+ */
+final class SyntheticTables {
+	static final int BOUND_COLUMNS = 5;
+
+	private static final long BASE_TIME = 1514764800000L;
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+
+	private SyntheticTables() {
+	}
+
+	/**
+	 * @param mix STRING, DECIMAL, DATE or MIXED
+	 * @param columns number of the columns
+	 * @param rows number of the rows
+	 * @return table filled with the values of the rows
+	 */
+	static JCO.Table table(String mix, int columns, int rows) {
+		JCO.Table table = new JCO.Table("BENCH");
+		int offset = 0;
+		for (int i = 0; i < columns; i++) {
+			table.addInfo(name(i), type(mix, i), length(mix, i), offset, decimals(mix, i));
+			offset += length(mix, i);
+		}
+		table.appendRows(rows);
+		for (int row = 0; row < rows; row++) {
+			table.setRow(row);
+			for (int i = 0; i < columns; i++) {
+				JCOValues.setValue(table, i, value(mix, i, row));
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * @param mix STRING, DECIMAL, DATE or MIXED
+	 * @param columns number of the columns
+	 * @return the columns of a {@link JCOFakeBackend} table
+	 */
+	static JCOFakeBackend.Column[] fakeColumns(final String mix, int columns) {
+		JCOFakeBackend.Column[] fakeColumns = new JCOFakeBackend.Column[columns];
+		for (int i = 0; i < columns; i++) {
+			final int column = i;
+			fakeColumns[i] = JCOFakeBackend.column(name(i), type(mix, i), length(mix, i), decimals(mix, i), new JCOFakeBackend.Values() {
+				@Override
+				public Object value(int row) {
+					return SyntheticTables.value(mix, column, row);
+				}
+			});
+		}
+		return fakeColumns;
+	}
+
+	static Class<?> rowClass(String mix) {
+		if ("STRING".equals(mix)) {
+			return StringRow.class;
+		}
+		if ("DECIMAL".equals(mix)) {
+			return DecimalRow.class;
+		}
+		if ("DATE".equals(mix)) {
+			return DateRow.class;
+		}
+		return MixedRow.class;
+	}
+
+	/**
+	 * @return the input rows of the mix, the bound columns filled
+	 */
+	static List<Object> inputRows(String mix, int rows) throws ReflectiveOperationException {
+		List<Object> list = new ArrayList<Object>(rows);
+		JCO.Table table = table(mix, BOUND_COLUMNS, rows);
+		JCOAnnotationMapper mapper = new JCOAnnotationMapper();
+		JCORowMapping<Object> rowMapping = rows > 0 ? mapper.rowMapping(table, rowClass(mix)) : null;
+		for (int row = 0; row < rows; row++) {
+			table.setRow(row);
+			Object instance = rowClass(mix).newInstance();
+			rowMapping.mapping(table, instance);
+			list.add(instance);
+		}
+		return list;
+	}
+
+	static String name(int column) {
+		return "C" + column;
+	}
+
+	static int type(String mix, int column) {
+		if ("STRING".equals(mix)) {
+			return JCO.TYPE_CHAR;
+		}
+		if ("DECIMAL".equals(mix)) {
+			return JCO.TYPE_BCD;
+		}
+		if ("DATE".equals(mix)) {
+			return JCO.TYPE_DATE;
+		}
+		switch (column % 4) {
+		case 0:
+			return JCO.TYPE_CHAR;
+		case 1:
+			return JCO.TYPE_INT;
+		case 2:
+			return JCO.TYPE_BCD;
+		default:
+			return JCO.TYPE_DATE;
+		}
+	}
+
+	private static int length(String mix, int column) {
+		switch (type(mix, column)) {
+		case JCO.TYPE_CHAR:
+			return 20;
+		case JCO.TYPE_INT:
+			return 4;
+		case JCO.TYPE_BCD:
+			return 9;
+		default:
+			return 8;
+		}
+	}
+
+	private static int decimals(String mix, int column) {
+		return type(mix, column) == JCO.TYPE_BCD ? 2 : 0;
+	}
+
+	static Object value(String mix, int column, int row) {
+		switch (type(mix, column)) {
+		case JCO.TYPE_CHAR:
+			return "V" + row + "_" + column;
+		case JCO.TYPE_INT:
+			return row;
+		case JCO.TYPE_BCD:
+			return BigDecimal.valueOf(row * 100L + column, 2);
+		default:
+			return new Date(BASE_TIME + row % 3650 * DAY);
+		}
+	}
+
+	static class StringRow {
+		@JCOValue("C0")
+		String c0;
+		@JCOValue("C1")
+		String c1;
+		@JCOValue("C2")
+		String c2;
+		@JCOValue("C3")
+		String c3;
+		@JCOValue("C4")
+		String c4;
+	}
+
+	static class DecimalRow {
+		@JCOValue("C0")
+		BigDecimal c0;
+		@JCOValue("C1")
+		BigDecimal c1;
+		@JCOValue("C2")
+		BigDecimal c2;
+		@JCOValue("C3")
+		BigDecimal c3;
+		@JCOValue("C4")
+		BigDecimal c4;
+	}
+
+	static class DateRow {
+		@JCOValue("C0")
+		Date c0;
+		@JCOValue("C1")
+		Date c1;
+		@JCOValue("C2")
+		Date c2;
+		@JCOValue("C3")
+		Date c3;
+		@JCOValue("C4")
+		Date c4;
+	}
+
+	static class MixedRow {
+		@JCOValue("C0")
+		String c0;
+		@JCOValue("C1")
+		int c1;
+		@JCOValue("C2")
+		BigDecimal c2;
+		@JCOValue("C3")
+		Date c3;
+		@JCOValue("C4")
+		String c4;
+	}
+}
@@ -0,0 +1,282 @@
+package sap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous {@link JCOTemplate}, the analogue of AsyncRestTemplate.
+ * The calls run on a bounded executor, sized to the max connections of the client pool by default,
+ * so the caller thread is not blocked while SAP executes the function.
+ * The templates calling the same client pool share one executor, so the threads are not multiplied by the templates.
+ *
+ * @see JCOTemplate
+ * @author Kwanil
+ */
+public class AsyncJCOTemplate {
+	private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+	// executors of the client pools, shut down when the last template using one is shut down
+	private static final Map<Object, PoolExecutor> poolExecutors = new HashMap<Object, PoolExecutor>();
+
+	private final JCOTemplate template;
+	private volatile ExecutorService executor;
+	private Object poolKey;
+	private volatile boolean shutdown;
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+	public AsyncJCOTemplate() {
+		this(new JCOTemplate());
+	}
+
+	public AsyncJCOTemplate(JCOTemplate template) {
+		this.template = Objects.requireNonNull(template);
+	}
+
+	/**
+	 * @param template {@link JCOTemplate}
+	 * @param executor executor of the calls, not shut down by {@link #shutdown()}
+	 */
+	public AsyncJCOTemplate(JCOTemplate template, ExecutorService executor) {
+		this.template = Objects.requireNonNull(template);
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	/**
+	 * The templates sharing the executor of a client pool must set the same capacity.
+	 *
+	 * @param queueCapacity max number of the calls waiting for a thread, the calls over it are rejected
+	 * @throws IllegalStateException if the executor is already created
+	 */
+	public synchronized void setQueueCapacity(int queueCapacity) {
+		if (queueCapacity <= 0) {
+			throw new IllegalArgumentException("queueCapacity must be positive : " + queueCapacity);
+		}
+		if (executor != null) {
+			throw new IllegalStateException("queueCapacity must be set before the first call");
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	public JCOTemplate getTemplate() {
+		return template;
+	}
+
+	/**
+	 * @see JCOTemplate#executeTable(JCOInput, Class)
+	 */
+	public <T> CompletableFuture<List<T>> executeTableAsync(final JCOInput input, final Class<T> outputClass) {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() throws Exception {
+				return template.executeTable(input, outputClass);
+			}
+		});
+	}
+
+	/**
+	 * @see JCOTemplate#executeTables(JCOInput, Class)
+	 */
+	public CompletableFuture<JCOTables> executeTablesAsync(final JCOInput input, final Class<?> outputClass) {
+		return submit(new Callable<JCOTables>() {
+			@Override
+			public JCOTables call() throws Exception {
+				return template.executeTables(input, outputClass);
+			}
+		});
+	}
+
+	/**
+	 * @see JCOTemplate#executeTables(JCOInput, JCOTableMappingClass)
+	 */
+	public CompletableFuture<JCOTables> executeTablesAsync(final JCOInput input, final JCOTableMappingClass mappingClass) {
+		return submit(new Callable<JCOTables>() {
+			@Override
+			public JCOTables call() throws Exception {
+				return template.executeTables(input, mappingClass);
+			}
+		});
+	}
+
+	/**
+	 * @see JCOTemplate#executeOutput(JCOInput, Class)
+	 */
+	public <T> CompletableFuture<T> executeOutputAsync(final JCOInput input, final Class<T> outputClass) {
+		return submit(new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				return template.executeOutput(input, outputClass);
+			}
+		});
+	}
+
+	/**
+	 * Execute the calls in parallel on the executor and wait for them.
+	 * A failed or timed out call is reported in its result and does not abort the other calls.
+	 * A timed out call still waiting for a thread is not executed, but a running one can not be interrupted,
+	 * it keeps its client until SAP returns.
+	 *
+	 * @param calls {@link JCOBatchCall}s
+	 * @param timeout timeout of each call, from the start of the batch
+	 * @param unit unit of timeout
+	 * @return the results in the order of the calls
+	 * @throws InterruptedException
+	 */
+	public List<JCOBatchResult<?>> executeBatch(List<? extends JCOBatchCall<?>> calls, long timeout, TimeUnit unit) throws InterruptedException {
+		Objects.requireNonNull(calls);
+		long start = System.nanoTime();
+		long timeoutMillis = unit.toMillis(timeout);
+		List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>(calls.size());
+		for (JCOBatchCall<?> call : calls) {
+			futures.add(submit(call));
+		}
+		List<JCOBatchResult<?>> results = new ArrayList<JCOBatchResult<?>>(calls.size());
+		for (int i = 0; i < calls.size(); i++) {
+			results.add(await(calls.get(i), futures.get(i), start, timeoutMillis));
+		}
+		return results;
+	}
+
+	private <R> CompletableFuture<R> submit(final JCOBatchCall<R> call) {
+		return submit(new Callable<R>() {
+			@Override
+			public R call() throws Exception {
+				return call.execute(template);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R> JCOBatchResult<R> await(JCOBatchCall<R> call, CompletableFuture<?> future, long start, long timeoutMillis) throws InterruptedException {
+		long remaining = TimeUnit.MILLISECONDS.toNanos(call.getTimeoutMillis(timeoutMillis)) - (System.nanoTime() - start);
+		try {
+			return JCOBatchResult.success(call, (R) future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS));
+		} catch (ExecutionException e) {
+			return JCOBatchResult.failure(call, e.getCause());
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			return JCOBatchResult.failure(call, e);
+		}
+	}
+
+	/**
+	 * Reject the later calls and shut down the executor of the client pool if no other template uses it.
+	 * The executor given to the constructor is not shut down.
+	 */
+	public synchronized void shutdown() {
+		if (shutdown) {
+			return;
+		}
+		shutdown = true;
+		if (poolKey != null) {
+			synchronized (poolExecutors) {
+				PoolExecutor poolExecutor = poolExecutors.get(poolKey);
+				if (poolExecutor != null && --poolExecutor.owners == 0) {
+					poolExecutors.remove(poolKey);
+					poolExecutor.executor.shutdown();
+				}
+			}
+		}
+	}
+
+	<T> CompletableFuture<T> submit(final Callable<T> callable) {
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+		if (shutdown) {
+			future.completeExceptionally(new RejectedExecutionException("Shut down"));
+			return future;
+		}
+		try {
+			getExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					// cancelled or timed out while it waited for a thread
+					if (future.isDone()) {
+						return;
+					}
+					try {
+						future.complete(callable.call());
+					} catch (Throwable e) {
+						future.completeExceptionally(e);
+					}
+				}
+			});
+		} catch (IOException e) {
+			future.completeExceptionally(e);
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	ExecutorService getExecutor() throws IOException {
+		ExecutorService executor = this.executor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = this.executor;
+				if (executor == null) {
+					if (shutdown) {
+						throw new RejectedExecutionException("Shut down");
+					}
+					Object poolKey = template.getPoolKey();
+					executor = acquireExecutor(poolKey);
+					this.poolKey = poolKey;
+					this.executor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * @return the executor of the client pool, created with the max connections of the pool by the first template
+	 */
+	private ExecutorService acquireExecutor(Object poolKey) throws IOException {
+		synchronized (poolExecutors) {
+			PoolExecutor poolExecutor = poolExecutors.get(poolKey);
+			if (poolExecutor == null) {
+				poolExecutor = new PoolExecutor(createExecutor(template.getEffectivePoolConfig().getMaxConnections()), queueCapacity);
+				poolExecutors.put(poolKey, poolExecutor);
+			} else if (poolExecutor.queueCapacity != queueCapacity) {
+				throw new IllegalStateException("Executor of " + poolKey + " is already created with queueCapacity "
+						+ poolExecutor.queueCapacity + ", not " + queueCapacity);
+			}
+			poolExecutor.owners++;
+			return poolExecutor.executor;
+		}
+	}
+
+	private ExecutorService createExecutor(int threads) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "jco-async-" + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Executor shared by the templates of a client pool, guarded by poolExecutors
+	 */
+	private static final class PoolExecutor {
+		private final ExecutorService executor;
+		private final int queueCapacity;
+		private int owners;
+
+		PoolExecutor(ExecutorService executor, int queueCapacity) {
+			this.executor = executor;
+			this.queueCapacity = queueCapacity;
+		}
+	}
+}
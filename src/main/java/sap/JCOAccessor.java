@@ -0,0 +1,251 @@
+package sap;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Getter and setter of one {@link JCOValue} field.
+ * The primitive setters write primitive fields without boxing.
+ *
+ * @see JCOAccessorStrategy
+ * @author Kwanil
+ */
+abstract class JCOAccessor {
+
+	abstract Object get(Object target);
+
+	abstract void set(Object target, Object value);
+
+	void setInt(Object target, int value) {
+		set(target, value);
+	}
+
+	void setLong(Object target, long value) {
+		set(target, value);
+	}
+
+	void setDouble(Object target, double value) {
+		set(target, value);
+	}
+
+	void setShort(Object target, short value) {
+		set(target, value);
+	}
+
+	void setByte(Object target, byte value) {
+		set(target, value);
+	}
+
+	static JCOAccessor of(Field field, JCOAccessorStrategy strategy) {
+		ReflectionUtils.makeAccessible(field);
+		// a static field is not bound to the instance, it is written by reflection
+		if (strategy == JCOAccessorStrategy.METHOD_HANDLE && !Modifier.isStatic(field.getModifiers())) {
+			try {
+				return new MethodHandleAccessor(field);
+			} catch (IllegalAccessException e) {
+				// restricted field, fall back to reflection
+			}
+		}
+		return new ReflectionAccessor(field);
+	}
+
+	static final class ReflectionAccessor extends JCOAccessor {
+		private final Field field;
+
+		ReflectionAccessor(Field field) {
+			this.field = field;
+		}
+
+		@Override
+		Object get(Object target) {
+			return ReflectionUtils.getField(field, target);
+		}
+
+		@Override
+		void set(Object target, Object value) {
+			ReflectionUtils.setField(field, target, value);
+		}
+
+		@Override
+		void setInt(Object target, int value) {
+			if (field.getType() != int.class) {
+				super.setInt(target, value);
+				return;
+			}
+			try {
+				field.setInt(target, value);
+			} catch (IllegalAccessException e) {
+				ReflectionUtils.handleReflectionException(e);
+			}
+		}
+
+		@Override
+		void setLong(Object target, long value) {
+			if (field.getType() != long.class) {
+				super.setLong(target, value);
+				return;
+			}
+			try {
+				field.setLong(target, value);
+			} catch (IllegalAccessException e) {
+				ReflectionUtils.handleReflectionException(e);
+			}
+		}
+
+		@Override
+		void setDouble(Object target, double value) {
+			if (field.getType() != double.class) {
+				super.setDouble(target, value);
+				return;
+			}
+			try {
+				field.setDouble(target, value);
+			} catch (IllegalAccessException e) {
+				ReflectionUtils.handleReflectionException(e);
+			}
+		}
+
+		@Override
+		void setShort(Object target, short value) {
+			if (field.getType() != short.class) {
+				super.setShort(target, value);
+				return;
+			}
+			try {
+				field.setShort(target, value);
+			} catch (IllegalAccessException e) {
+				ReflectionUtils.handleReflectionException(e);
+			}
+		}
+
+		@Override
+		void setByte(Object target, byte value) {
+			if (field.getType() != byte.class) {
+				super.setByte(target, value);
+				return;
+			}
+			try {
+				field.setByte(target, value);
+			} catch (IllegalAccessException e) {
+				ReflectionUtils.handleReflectionException(e);
+			}
+		}
+	}
+
+	static final class MethodHandleAccessor extends JCOAccessor {
+		private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final Class<?> type;
+		// setter typed for the primitive field, (Object, primitive)void
+		private final MethodHandle primitiveSetter;
+
+		MethodHandleAccessor(Field field) throws IllegalAccessException {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle rawSetter = lookup.unreflectSetter(field);
+			this.type = field.getType();
+			this.getter = lookup.unreflectGetter(field).asType(GETTER);
+			this.setter = rawSetter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			this.primitiveSetter = type.isPrimitive() ? rawSetter.asType(MethodType.methodType(void.class, Object.class, type)) : null;
+		}
+
+		@Override
+		Object get(Object target) {
+			try {
+				return getter.invokeExact(target);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		void set(Object target, Object value) {
+			try {
+				setter.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		void setInt(Object target, int value) {
+			if (type != int.class) {
+				super.setInt(target, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		void setLong(Object target, long value) {
+			if (type != long.class) {
+				super.setLong(target, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		void setDouble(Object target, double value) {
+			if (type != double.class) {
+				super.setDouble(target, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		void setShort(Object target, short value) {
+			if (type != short.class) {
+				super.setShort(target, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		void setByte(Object target, byte value) {
+			if (type != byte.class) {
+				super.setByte(target, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		private static RuntimeException rethrow(Throwable e) {
+			if (e instanceof RuntimeException) {
+				return (RuntimeException) e;
+			}
+			if (e instanceof Error) {
+				throw (Error) e;
+			}
+			return new IllegalStateException(e);
+		}
+	}
+}
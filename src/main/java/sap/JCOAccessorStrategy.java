@@ -0,0 +1,20 @@
+package sap;
+
+/**
+ * Strategy of reading and writing {@link JCOValue} fields.
+ *
+ * @see JCOAnnotationMapper#setAccessorStrategy(JCOAccessorStrategy)
+ * @author Kwanil
+ */
+public enum JCOAccessorStrategy {
+	/**
+	 * Direct getters and setters bound with {@link java.lang.invoke.MethodHandle}.
+	 * Primitive fields are written without boxing. Falls back to {@link #REFLECTION} if the field can not be bound.
+	 */
+	METHOD_HANDLE,
+
+	/**
+	 * {@link java.lang.reflect.Field#get(Object)} and {@link java.lang.reflect.Field#set(Object, Object)}
+	 */
+	REFLECTION
+}
@@ -0,0 +1,35 @@
+package sap;
+
+import com.sap.mw.jco.IRepository;
+import com.sap.mw.jco.JCO;
+
+/**
+ * The system called by {@link JCOConnector}: the repository of the function metadata,
+ * and the sessions running the functions. The default backend is the client pool of {@link JCOTemplate},
+ * {@link JCOFakeBackend} serves scripted functions in memory.
+ *
+ * @see JCOTemplate#setBackend(JCOBackend)
+ * @author Kwanil
+ */
+public interface JCOBackend {
+
+	/**
+	 * @return repository of the function metadata
+	 */
+	IRepository getRepository();
+
+	/**
+	 * @return session of one connector, released by {@link JCOConnector#release()}
+	 */
+	Session open();
+
+	interface Session {
+
+		/**
+		 * @param function function holding the import parameters and tables, filled with the export parameters and tables
+		 */
+		void execute(JCO.Function function);
+
+		void release();
+	}
+}
@@ -0,0 +1,86 @@
+package sap;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One call of a batch executed by {@link AsyncJCOTemplate#executeBatch(List, long, TimeUnit)}.
+ *
+ * @param <R> result type of the call
+ * @author Kwanil
+ */
+public abstract class JCOBatchCall<R> {
+	private final JCOInput input;
+	private long timeoutMillis = -1;
+
+	private JCOBatchCall(JCOInput input) {
+		this.input = Objects.requireNonNull(input);
+	}
+
+	public JCOInput getInput() {
+		return input;
+	}
+
+	/**
+	 * @param timeout timeout of this call, overriding the timeout of the batch
+	 * @param unit unit of timeout
+	 * @return this
+	 */
+	public JCOBatchCall<R> timeout(long timeout, TimeUnit unit) {
+		this.timeoutMillis = unit.toMillis(timeout);
+		return this;
+	}
+
+	long getTimeoutMillis(long defaultTimeoutMillis) {
+		return timeoutMillis < 0 ? defaultTimeoutMillis : timeoutMillis;
+	}
+
+	abstract R execute(JCOTemplate template) throws Exception;
+
+	/**
+	 * @see JCOTemplate#executeTable(JCOInput, Class)
+	 */
+	public static <T> JCOBatchCall<List<T>> table(JCOInput input, final Class<T> outputClass) {
+		Objects.requireNonNull(outputClass);
+		return new JCOBatchCall<List<T>>(input) {
+			@Override
+			List<T> execute(JCOTemplate template) throws Exception {
+				return template.executeTable(getInput(), outputClass);
+			}
+		};
+	}
+
+	/**
+	 * @see JCOTemplate#executeTables(JCOInput, JCOTableMappingClass)
+	 */
+	public static JCOBatchCall<JCOTables> tables(JCOInput input, final JCOTableMappingClass mappingClass) {
+		Objects.requireNonNull(mappingClass);
+		return new JCOBatchCall<JCOTables>(input) {
+			@Override
+			JCOTables execute(JCOTemplate template) throws Exception {
+				return template.executeTables(getInput(), mappingClass);
+			}
+		};
+	}
+
+	/**
+	 * @see JCOTemplate#executeOutput(JCOInput, Class)
+	 */
+	public static <T> JCOBatchCall<T> output(JCOInput input, final Class<T> outputClass) {
+		Objects.requireNonNull(outputClass);
+		return new JCOBatchCall<T>(input) {
+			@Override
+			T execute(JCOTemplate template) throws Exception {
+				return template.executeOutput(getInput(), outputClass);
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+}
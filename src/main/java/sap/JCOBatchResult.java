@@ -0,0 +1,62 @@
+package sap;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of one {@link JCOBatchCall}, either the value or the error of the call.
+ *
+ * @param <R> result type of the call
+ * @author Kwanil
+ */
+public class JCOBatchResult<R> {
+	private final JCOBatchCall<R> call;
+	private final R value;
+	private final Throwable error;
+
+	private JCOBatchResult(JCOBatchCall<R> call, R value, Throwable error) {
+		this.call = call;
+		this.value = value;
+		this.error = error;
+	}
+
+	static <R> JCOBatchResult<R> success(JCOBatchCall<R> call, R value) {
+		return new JCOBatchResult<R>(call, value, null);
+	}
+
+	static <R> JCOBatchResult<R> failure(JCOBatchCall<R> call, Throwable error) {
+		return new JCOBatchResult<R>(call, null, error);
+	}
+
+	public JCOBatchCall<R> getCall() {
+		return call;
+	}
+
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	public boolean isTimeout() {
+		return error instanceof TimeoutException;
+	}
+
+	/**
+	 * @return the value of the call, null if the call failed
+	 */
+	public R getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the error of the call, null if the call succeeded
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+}
@@ -0,0 +1,209 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import com.sap.mw.jco.JCO.Record;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ReflectionUtils.FieldCallback;
+import org.springframework.util.ReflectionUtils.FieldFilter;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Binding plan of a Value Object.
+ * The {@link JCOValue} fields of the class hierarchy are scanned once and indexed by JCO key,
+ * so a row is mapped without any reflective scan.
+ *
+ * @see JCOAnnotationMapper
+ * @author Kwanil
+ */
+final class JCOBinding {
+	private static final JCOFieldBinding[] EMPTY = new JCOFieldBinding[0];
+
+	private final JCOFieldBinding[] fields;
+	private final Map<String, JCOFieldBinding[]> keys;
+	private final int converterVersion;
+
+	private JCOBinding(List<JCOFieldBinding> fields, int converterVersion) {
+		this.converterVersion = converterVersion;
+		this.fields = fields.toArray(new JCOFieldBinding[fields.size()]);
+		Map<String, List<JCOFieldBinding>> grouped = new LinkedHashMap<String, List<JCOFieldBinding>>();
+		for (JCOFieldBinding binding : fields) {
+			List<JCOFieldBinding> list = grouped.get(binding.getKey());
+			if (list == null) {
+				list = new ArrayList<JCOFieldBinding>(1);
+				grouped.put(binding.getKey(), list);
+			}
+			list.add(binding);
+		}
+		Map<String, JCOFieldBinding[]> keys = new HashMap<String, JCOFieldBinding[]>();
+		for (Map.Entry<String, List<JCOFieldBinding>> entry : grouped.entrySet()) {
+			keys.put(entry.getKey(), entry.getValue().toArray(EMPTY));
+		}
+		this.keys = keys;
+	}
+
+	static JCOBinding of(Class<?> clazz, final JCOAccessorStrategy strategy, final JCOConverters converters) {
+		final int version = converters.version();
+		final List<JCOFieldBinding> fields = new ArrayList<JCOFieldBinding>();
+		ReflectionUtils.doWithFields(clazz, new FieldCallback() {
+			@Override
+			public void doWith(Field field) {
+				fields.add(new JCOFieldBinding(field, strategy, converters));
+			}
+		}, new FieldFilter() {
+			@Override
+			public boolean matches(Field field) {
+				return field.isAnnotationPresent(JCOValue.class);
+			}
+		});
+		return new JCOBinding(fields, version);
+	}
+
+	/**
+	 * @param converters registry the binding was built with
+	 * @return true if a converter is registered after the binding was built
+	 */
+	boolean isStale(JCOConverters converters) {
+		return converterVersion != converters.version();
+	}
+
+	/**
+	 * @param clazz Value Object class
+	 * @return the JCO keys of the {@link JCOValue} fields of the class hierarchy
+	 */
+	static Set<String> keys(Class<?> clazz) {
+		final Set<String> keys = new LinkedHashSet<String>();
+		ReflectionUtils.doWithFields(clazz, new FieldCallback() {
+			@Override
+			public void doWith(Field field) {
+				keys.add(field.getAnnotation(JCOValue.class).value());
+			}
+		}, new FieldFilter() {
+			@Override
+			public boolean matches(Field field) {
+				return field.isAnnotationPresent(JCOValue.class);
+			}
+		});
+		return keys;
+	}
+
+	/**
+	 * @param key JCO key
+	 * @return the bindings of the key, empty if the key is not declared
+	 */
+	JCOFieldBinding[] get(String key) {
+		JCOFieldBinding[] bindings = keys.get(key);
+		return bindings == null ? EMPTY : bindings;
+	}
+
+	JCOFieldBinding[] fields() {
+		return fields;
+	}
+
+	void mapping(JCO.Field field, Object instance) {
+		for (JCOFieldBinding binding : get(field.getName())) {
+			binding.mapping(field, instance);
+		}
+	}
+
+	/**
+	 * Resolve the columns of the record to the bindings once, so every row is read by column index.
+	 *
+	 * @param record the first row of a table
+	 * @param columns the projected columns, null for all the columns
+	 * @return row mapping for the columns of the record
+	 */
+	JCORowMapping<Object> rowMapping(Record record, Set<String> columns) {
+		final List<Integer> indexes = new ArrayList<Integer>();
+		final List<Integer> types = new ArrayList<Integer>();
+		final List<JCOFieldBinding> bindings = new ArrayList<JCOFieldBinding>();
+		for (int i = 0; i < record.getFieldCount(); i++) {
+			if (columns != null && !columns.contains(record.getName(i))) {
+				continue;
+			}
+			for (JCOFieldBinding binding : get(record.getName(i))) {
+				indexes.add(i);
+				types.add(record.getType(i));
+				bindings.add(binding);
+			}
+		}
+		return new IndexedRowMapping(indexes, types, bindings);
+	}
+
+	/**
+	 * Resolve the keys to the column indexes of the input table once, the keys that are not a column are not written.
+	 *
+	 * @param record input table
+	 * @return row writer for the columns of the record
+	 */
+	JCORowWriter<Object> rowWriter(Record record) {
+		final List<Integer> indexes = new ArrayList<Integer>();
+		final List<JCOFieldBinding> bindings = new ArrayList<JCOFieldBinding>();
+		for (JCOFieldBinding binding : fields) {
+			int index = JCOValues.indexOf(record, binding.getKey());
+			if (index >= 0) {
+				indexes.add(index);
+				bindings.add(binding);
+			}
+		}
+		final int[] columns = toArray(indexes);
+		final JCOFieldBinding[] writers = bindings.toArray(EMPTY);
+		return new JCORowWriter<Object>() {
+			@Override
+			public void input(Record record, Object source) {
+				for (int i = 0; i < columns.length; i++) {
+					writers[i].input(record, columns[i], source);
+				}
+			}
+		};
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	void input(Record jcoObject, Object source) {
+		for (JCOFieldBinding binding : fields) {
+			binding.input(jcoObject, source);
+		}
+	}
+
+	private static final class IndexedRowMapping implements JCOValueRowMapping<Object> {
+		private final int[] indexes;
+		private final int[] types;
+		private final JCOFieldBinding[] bindings;
+
+		IndexedRowMapping(List<Integer> indexes, List<Integer> types, List<JCOFieldBinding> bindings) {
+			this.indexes = toArray(indexes);
+			this.types = toArray(types);
+			this.bindings = bindings.toArray(EMPTY);
+		}
+
+		@Override
+		public void mapping(Record record, Object target) {
+			for (int i = 0; i < indexes.length; i++) {
+				bindings[i].mapping(record, indexes[i], types[i], target);
+			}
+		}
+
+		@Override
+		public void mapping(Object[] values, Object target) {
+			for (int i = 0; i < indexes.length; i++) {
+				bindings[i].mapping(values[indexes[i]], types[i], target);
+			}
+		}
+
+		@Override
+		public boolean clear(Object target) {
+			for (JCOFieldBinding binding : bindings) {
+				binding.clear(target);
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,318 @@
+package sap;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Coalesces the concurrent single-key lookups of a function accepting an input table of keys.
+ * The keys submitted within the window, or until the max batch size, are sent as the rows of the input table
+ * in one call of {@link AsyncJCOTemplate}, and the rows of the output table are split back to the callers by their keys.
+ * The same key submitted twice in a batch is sent once.
+ *
+ * <pre>
+ * JCOCoalescingExecutor&lt;String, Material&gt; materials = new JCOCoalescingExecutor&lt;String, Material&gt;(
+ *         asyncTemplate, "Z_MATERIALS", Material.class, new JCOCoalescingExecutor.KeyExtractor&lt;String, Material&gt;() {
+ *             public String key(Material row) {
+ *                 return row.getMatnr();
+ *             }
+ *         })
+ *     .inputTable("IT_MATNR", "MATNR")
+ *     .outputTable("ET_MATERIALS")
+ *     .window(5, TimeUnit.MILLISECONDS)
+ *     .maxBatchSize(200);
+ * CompletableFuture&lt;List&lt;Material&gt;&gt; rows = materials.submit("000000000000001234");
+ * </pre>
+ *
+ * @param <K> key type, compared by equals to the keys of the output rows
+ * @param <T> output row type
+ * @see AsyncJCOTemplate
+ * @author Kwanil
+ */
+public class JCOCoalescingExecutor<K, T> {
+	private static final long DEFAULT_WINDOW_MILLIS = 10;
+	private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+	private final AsyncJCOTemplate template;
+	private final String functionName;
+	private final Class<T> outputClass;
+	private final KeyExtractor<K, ? super T> keyExtractor;
+	private String inputTableName;
+	private InputRow<K> inputRow;
+	private String outputTableName;
+	private Object input;
+	private long windowMillis = DEFAULT_WINDOW_MILLIS;
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	private final ScheduledExecutorService timer;
+	private Map<K, List<CompletableFuture<List<T>>>> batch = new LinkedHashMap<K, List<CompletableFuture<List<T>>>>();
+	private ScheduledFuture<?> scheduledFlush;
+	private volatile boolean shutdown;
+
+	private final AtomicLong submitCount = new AtomicLong();
+	private final AtomicLong callCount = new AtomicLong();
+
+	/**
+	 * @param template template running the batched calls
+	 * @param functionName function accepting the input table of keys
+	 * @param outputClass mapping class of the output rows
+	 * @param keyExtractor key of an output row
+	 */
+	public JCOCoalescingExecutor(AsyncJCOTemplate template, String functionName, Class<T> outputClass, KeyExtractor<K, ? super T> keyExtractor) {
+		this.template = Objects.requireNonNull(template);
+		this.functionName = Objects.requireNonNull(functionName, "functionName must not be null");
+		this.outputClass = Objects.requireNonNull(outputClass, "outputClass must not be null");
+		this.keyExtractor = Objects.requireNonNull(keyExtractor, "keyExtractor must not be null");
+		this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "jco-coalescing-" + JCOCoalescingExecutor.this.functionName);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * @param tableName input table of the keys
+	 * @param keyColumn column of the key, the other columns are left initial
+	 * @return this
+	 */
+	public JCOCoalescingExecutor<K, T> inputTable(String tableName, final String keyColumn) {
+		Objects.requireNonNull(keyColumn, "keyColumn must not be null");
+		return inputTable(tableName, new InputRow<K>() {
+			@Override
+			public Object row(K key) {
+				return Collections.<String, Object>singletonMap(keyColumn, key);
+			}
+		});
+	}
+
+	/**
+	 * @param tableName input table of the keys
+	 * @param inputRow row of a key, e.g. a range row of SIGN, OPTION and LOW
+	 * @return this
+	 */
+	public JCOCoalescingExecutor<K, T> inputTable(String tableName, InputRow<K> inputRow) {
+		this.inputTableName = Objects.requireNonNull(tableName, "tableName must not be null");
+		this.inputRow = Objects.requireNonNull(inputRow, "inputRow must not be null");
+		return this;
+	}
+
+	/**
+	 * @param tableName output table of the rows of all the keys
+	 * @return this
+	 */
+	public JCOCoalescingExecutor<K, T> outputTable(String tableName) {
+		this.outputTableName = Objects.requireNonNull(tableName, "tableName must not be null");
+		return this;
+	}
+
+	/**
+	 * @param input import parameters shared by all the calls, an object or a map
+	 * @return this
+	 */
+	public JCOCoalescingExecutor<K, T> input(Object input) {
+		this.input = input;
+		return this;
+	}
+
+	/**
+	 * @param window time the first key of a batch waits for the other keys
+	 * @param unit unit of window
+	 * @return this
+	 */
+	public JCOCoalescingExecutor<K, T> window(long window, TimeUnit unit) {
+		if (window < 0) {
+			throw new IllegalArgumentException("window must not be negative : " + window);
+		}
+		this.windowMillis = Objects.requireNonNull(unit).toMillis(window);
+		return this;
+	}
+
+	/**
+	 * @param maxBatchSize number of the distinct keys sending a batch without waiting for the window
+	 * @return this
+	 */
+	public JCOCoalescingExecutor<K, T> maxBatchSize(int maxBatchSize) {
+		if (maxBatchSize <= 0) {
+			throw new IllegalArgumentException("maxBatchSize must be positive : " + maxBatchSize);
+		}
+		this.maxBatchSize = maxBatchSize;
+		return this;
+	}
+
+	/**
+	 * @param key key to look up
+	 * @return rows of the key, empty if the output table has no row of the key
+	 */
+	public CompletableFuture<List<T>> submit(K key) {
+		Objects.requireNonNull(key, "key must not be null");
+		if (inputTableName == null || outputTableName == null) {
+			throw new IllegalStateException("inputTable and outputTable must be set : " + functionName);
+		}
+		CompletableFuture<List<T>> future = new CompletableFuture<List<T>>();
+		Map<K, List<CompletableFuture<List<T>>>> full = null;
+		synchronized (this) {
+			if (shutdown) {
+				future.completeExceptionally(new RejectedExecutionException("Shut down : " + functionName));
+				return future;
+			}
+			submitCount.incrementAndGet();
+			List<CompletableFuture<List<T>>> futures = batch.get(key);
+			if (futures == null) {
+				futures = new ArrayList<CompletableFuture<List<T>>>(1);
+				batch.put(key, futures);
+			}
+			futures.add(future);
+			if (batch.size() >= maxBatchSize) {
+				full = takeBatch();
+			} else if (scheduledFlush == null) {
+				scheduledFlush = timer.schedule(new Runnable() {
+					@Override
+					public void run() {
+						flush();
+					}
+				}, windowMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+		if (full != null) {
+			call(full);
+		}
+		return future;
+	}
+
+	/**
+	 * Send the waiting keys without waiting for the window
+	 */
+	public void flush() {
+		Map<K, List<CompletableFuture<List<T>>>> waiting;
+		synchronized (this) {
+			waiting = takeBatch();
+		}
+		if (!waiting.isEmpty()) {
+			call(waiting);
+		}
+	}
+
+	/**
+	 * Send the waiting keys and stop the timer, the keys submitted later are rejected.
+	 * The template is not shut down.
+	 */
+	public void shutdown() {
+		synchronized (this) {
+			shutdown = true;
+		}
+		flush();
+		timer.shutdown();
+	}
+
+	/**
+	 * @return number of the keys submitted
+	 */
+	public long getSubmitCount() {
+		return submitCount.get();
+	}
+
+	/**
+	 * @return number of the calls to SAP
+	 */
+	public long getCallCount() {
+		return callCount.get();
+	}
+
+	private Map<K, List<CompletableFuture<List<T>>>> takeBatch() {
+		Map<K, List<CompletableFuture<List<T>>>> taken = batch;
+		batch = new LinkedHashMap<K, List<CompletableFuture<List<T>>>>();
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+		return taken;
+	}
+
+	/**
+	 * A failure before the call, e.g. of the input row of a key, fails the keys of the batch
+	 * instead of the caller of {@link #submit(Object)} or of the timer.
+	 */
+	private void call(final Map<K, List<CompletableFuture<List<T>>>> keys) {
+		try {
+			List<Object> rows = new ArrayList<Object>(keys.size());
+			for (K key : keys.keySet()) {
+				rows.add(inputRow.row(key));
+			}
+			JCOInput batchInput = JCOInput.of(functionName, outputTableName).addInputTable(inputTableName, rows);
+			if (input != null) {
+				batchInput.input(input);
+			}
+			callCount.incrementAndGet();
+			template.executeTableAsync(batchInput, outputClass).whenComplete(new BiConsumer<List<T>, Throwable>() {
+				@Override
+				public void accept(List<T> output, Throwable error) {
+					if (error != null) {
+						completeExceptionally(keys, error);
+					} else {
+						complete(keys, output);
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			completeExceptionally(keys, e);
+		}
+	}
+
+	private void complete(Map<K, List<CompletableFuture<List<T>>>> keys, List<T> output) {
+		Map<Object, List<T>> rowsByKey = new HashMap<Object, List<T>>();
+		try {
+			for (T row : output) {
+				Object key = keyExtractor.key(row);
+				List<T> rows = rowsByKey.get(key);
+				if (rows == null) {
+					rows = new ArrayList<T>();
+					rowsByKey.put(key, rows);
+				}
+				rows.add(row);
+			}
+		} catch (RuntimeException e) {
+			completeExceptionally(keys, e);
+			return;
+		}
+		for (Map.Entry<K, List<CompletableFuture<List<T>>>> entry : keys.entrySet()) {
+			List<T> rows = rowsByKey.get(entry.getKey());
+			for (CompletableFuture<List<T>> future : entry.getValue()) {
+				future.complete(rows == null ? new ArrayList<T>() : new ArrayList<T>(rows));
+			}
+		}
+	}
+
+	private void completeExceptionally(Map<K, List<CompletableFuture<List<T>>>> keys, Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		for (List<CompletableFuture<List<T>>> futures : keys.values()) {
+			for (CompletableFuture<List<T>> future : futures) {
+				future.completeExceptionally(cause);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+
+	/**
+	 * Key of an output row, e.g. the material number column
+	 */
+	public interface KeyExtractor<K, T> {
+		K key(T row);
+	}
+
+	/**
+	 * Row of the input table of a key, an object or a map
+	 */
+	public interface InputRow<K> {
+		Object row(K key);
+	}
+}
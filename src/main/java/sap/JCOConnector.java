@@ -1,11 +1,14 @@
 package sap;
 
+import com.sap.mw.jco.IFunctionTemplate;
 import com.sap.mw.jco.IRepository;
 import com.sap.mw.jco.JCO;
 import com.sap.mw.jco.JCO.*;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 
@@ -13,28 +16,205 @@ import java.util.Properties;
  * @author Kwanil
  */
 public class JCOConnector {
-	private static final int CONNECTIONS = 5;
-	private PoolManager singleton = PoolManager.singleton();
+	// configurations of the pools added by addClientPool, and the number of the owners of the acquired pools,
+	// guarded by the pool manager
+	private static final Map<String, JCOPoolConfig> poolConfigs = new HashMap<String, JCOPoolConfig>();
+	private static final Map<String, Integer> poolOwners = new HashMap<String, Integer>();
+
 	private IRepository repository;
-	private Client client;
-	private Function function;
+	private JCOBackend.Session session;
+	// pool retained by this connector until it is released, null if the pool is not acquired
+	private String retainedPool;
+	private boolean released;
+	private final JCOFunctionTemplateCache functionTemplates;
+	// a function holds the parameters of one call, so it is created per connector and function name
+	private final Map<String, Function> functions = new HashMap<String, Function>();
+	private JCOMetrics metrics = JCOMetrics.NONE;
 
 	public static JCOConnector create(Properties properties, String repositoryName, String poolName) {
-		return new JCOConnector(properties, repositoryName, poolName);
+		addClientPool(properties, poolName, JCOPoolConfig.of(properties));
+		return create(createRepository(repositoryName, poolName), poolName);
 	}
 
-	@SuppressWarnings("deprecation")
-	private JCOConnector(Properties properties, String repositoryName, String poolName) {
-		if (singleton.getPool(poolName) == null) {
-			singleton.addClientPool(poolName, CONNECTIONS, properties);
+	/**
+	 * @param repository repository created by {@link #createRepository(String, String)}
+	 * @param poolName pool added by {@link #addClientPool(Properties, String, JCOPoolConfig)}
+	 * @return connector holding a client of the pool
+	 */
+	public static JCOConnector create(IRepository repository, String poolName) {
+		return create(repository, poolName, null);
+	}
+
+	/**
+	 * @param repository repository created by {@link #createRepository(String, String)}
+	 * @param poolName pool added by {@link #addClientPool(Properties, String, JCOPoolConfig)}
+	 * @param functionTemplates cache of the function metadata, null to ask the repository
+	 * @return connector holding a client of the pool, an owner of the pool acquired by
+	 *         {@link #acquireClientPool(Properties, String, JCOPoolConfig)} until it is released
+	 */
+	public static JCOConnector create(IRepository repository, String poolName, JCOFunctionTemplateCache functionTemplates) {
+		boolean retained = retainClientPool(poolName);
+		try {
+			JCOConnector connector = new JCOConnector(repository, new ClientSession(PoolManager.singleton().getClient(poolName)), functionTemplates);
+			connector.retainedPool = retained ? poolName : null;
+			return connector;
+		} catch (RuntimeException e) {
+			if (retained) {
+				releaseClientPool(poolName);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @param backend backend of the metadata and the sessions
+	 * @param functionTemplates cache of the function metadata, null to ask the repository
+	 * @return connector holding a session of the backend
+	 */
+	public static JCOConnector create(JCOBackend backend, JCOFunctionTemplateCache functionTemplates) {
+		Objects.requireNonNull(backend, "backend must not be null");
+		return new JCOConnector(backend.getRepository(), backend.open(), functionTemplates);
+	}
+
+	private JCOConnector(IRepository repository, JCOBackend.Session session, JCOFunctionTemplateCache functionTemplates) {
+		this.repository = Objects.requireNonNull(repository, "repository must not be null");
+		this.session = Objects.requireNonNull(session, "session must not be null");
+		this.functionTemplates = functionTemplates;
+	}
+
+	/**
+	 * Add the pool if the pool manager does not have a pool of the name yet, so the pool is shared by the name.
+	 *
+	 * @return the configuration of the pool in effect
+	 * @throws IllegalStateException if the pool was added with another configuration
+	 */
+	static JCOPoolConfig addClientPool(Properties properties, String poolName, JCOPoolConfig config) {
+		Objects.requireNonNull(config, "config must not be null");
+		PoolManager poolManager = PoolManager.singleton();
+		synchronized (poolManager) {
+			if (poolManager.getPool(poolName) != null) {
+				JCOPoolConfig existing = poolConfigs.get(poolName);
+				if (existing == null) {
+					return config;
+				}
+				if (!existing.equals(config)) {
+					throw new IllegalStateException("Pool " + poolName + " is already added with " + existing + ", not " + config
+							+ " : set the same pool config or another pool name");
+				}
+				return existing;
+			}
+			poolManager.addClientPool(poolName, config.getMaxConnections(), properties);
+			Pool pool = poolManager.getPool(poolName);
+			if (config.getMaxPoolSize() > 0) {
+				pool.setMaxPoolSize(config.getMaxPoolSize());
+			}
+			if (config.getMaxWaitTime() > 0) {
+				pool.setMaxWaitTime(config.getMaxWaitTime());
+			}
+			if (config.getConnectionTimeout() > 0) {
+				pool.setConnectionTimeout(config.getConnectionTimeout());
+			}
+			if (config.getTimeoutCheckPeriod() > 0) {
+				pool.setTimeoutCheckPeriod(config.getTimeoutCheckPeriod());
+			}
+			JCOPoolConfig effective = config.copy();
+			poolConfigs.put(poolName, effective);
+			return effective;
+		}
+	}
+
+	/**
+	 * Add the pool as {@link #addClientPool(Properties, String, JCOPoolConfig)} and count the caller as an owner of the pool,
+	 * so the pool shared by the name is removed only when the last owner releases it.
+	 *
+	 * @return the configuration of the pool in effect
+	 * @see #releaseClientPool(String)
+	 */
+	static JCOPoolConfig acquireClientPool(Properties properties, String poolName, JCOPoolConfig config) {
+		PoolManager poolManager = PoolManager.singleton();
+		synchronized (poolManager) {
+			JCOPoolConfig effective = addClientPool(properties, poolName, config);
+			Integer owners = poolOwners.get(poolName);
+			poolOwners.put(poolName, owners == null ? 1 : owners + 1);
+			return effective;
+		}
+	}
+
+	/**
+	 * Count one more owner of a pool acquired by {@link #acquireClientPool(Properties, String, JCOPoolConfig)}.
+	 *
+	 * @return false if the pool is not acquired
+	 */
+	private static boolean retainClientPool(String poolName) {
+		PoolManager poolManager = PoolManager.singleton();
+		synchronized (poolManager) {
+			Integer owners = poolOwners.get(poolName);
+			if (owners == null) {
+				return false;
+			}
+			poolOwners.put(poolName, owners + 1);
+			return true;
+		}
+	}
+
+	/**
+	 * Release a pool acquired by {@link #acquireClientPool(Properties, String, JCOPoolConfig)},
+	 * the pool is removed when the last owner releases it.
+	 */
+	static void releaseClientPool(String poolName) {
+		PoolManager poolManager = PoolManager.singleton();
+		synchronized (poolManager) {
+			Integer owners = poolOwners.get(poolName);
+			if (owners == null) {
+				return;
+			}
+			if (owners > 1) {
+				poolOwners.put(poolName, owners - 1);
+			} else {
+				removeClientPool(poolName);
+			}
+		}
+	}
+
+	static Pool getPool(String poolName) {
+		return PoolManager.singleton().getPool(poolName);
+	}
+
+	static void removeClientPool(String poolName) {
+		PoolManager poolManager = PoolManager.singleton();
+		synchronized (poolManager) {
+			if (poolManager.getPool(poolName) != null) {
+				poolManager.removeClientPool(poolName);
+			}
+			poolConfigs.remove(poolName);
+			poolOwners.remove(poolName);
 		}
-		client = Objects.requireNonNull(singleton.getClient(poolName));
-		repository = Objects.requireNonNull(JCO.createRepository(repositoryName, poolName));
 	}
 
 	@SuppressWarnings("deprecation")
+	static IRepository createRepository(String repositoryName, String poolName) {
+		return Objects.requireNonNull(JCO.createRepository(repositoryName, poolName));
+	}
+
+	/**
+	 * Return the client to the pool and release the pool, only the first call releases them.
+	 */
 	public void release() {
-		JCO.releaseClient(client);
+		if (released) {
+			return;
+		}
+		released = true;
+		try {
+			session.release();
+		} finally {
+			if (retainedPool != null) {
+				releaseClientPool(retainedPool);
+			}
+		}
+	}
+
+	void setMetrics(JCOMetrics metrics) {
+		this.metrics = Objects.requireNonNull(metrics);
 	}
 
 	JCOResult executeTable(String functionName, Collection<String> tableNames) {
@@ -47,16 +227,44 @@ public class JCOConnector {
 
 	JCOResult execute(String functionName) {
 		Objects.requireNonNull(functionName, "functionName must not be null");
-		client.execute(getFunction(functionName));
+		Function function = getFunction(functionName);
+		long start = System.nanoTime();
+		try {
+			session.execute(function);
+		} catch (RuntimeException e) {
+			metrics.error(functionName, JCOMetrics.Phase.EXECUTE, e);
+			throw e;
+		}
+		metrics.record(functionName, JCOMetrics.Phase.EXECUTE, System.nanoTime() - start);
 		return new JCOResult(getOutput(functionName));
 	}
 
 	Function getFunction(String functionName) {
 		Objects.requireNonNull(functionName, "functionName must not be null");
-		if (this.function == null) {
-			this.function = repository.getFunctionTemplate(functionName).getFunction();
+		Function function = functions.get(functionName);
+		if (function == null) {
+			long start = System.nanoTime();
+			try {
+				function = getFunctionTemplate(functionName).getFunction();
+			} catch (RuntimeException e) {
+				metrics.error(functionName, JCOMetrics.Phase.METADATA, e);
+				throw e;
+			}
+			metrics.record(functionName, JCOMetrics.Phase.METADATA, System.nanoTime() - start);
+			functions.put(functionName, function);
+		}
+		return function;
+	}
+
+	private IFunctionTemplate getFunctionTemplate(String functionName) {
+		if (functionTemplates != null) {
+			return functionTemplates.get(repository, functionName);
+		}
+		IFunctionTemplate template = repository.getFunctionTemplate(functionName);
+		if (template == null) {
+			throw new IllegalArgumentException("Not found function : " + functionName);
 		}
-		return this.function;
+		return template;
 	}
 
 	ParameterList getInput(String functionName) {
@@ -88,4 +296,26 @@ public class JCOConnector {
 		}
 		return getFunction(functionName).getTableParameterList().getTable(tableName);
 	}
+
+	/**
+	 * Session of a client borrowed from the pool
+	 */
+	private static final class ClientSession implements JCOBackend.Session {
+		private final Client client;
+
+		ClientSession(Client client) {
+			this.client = Objects.requireNonNull(client);
+		}
+
+		@Override
+		public void execute(Function function) {
+			client.execute(function);
+		}
+
+		@SuppressWarnings("deprecation")
+		@Override
+		public void release() {
+			JCO.releaseClient(client);
+		}
+	}
 }
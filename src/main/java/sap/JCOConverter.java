@@ -0,0 +1,57 @@
+package sap;
+
+/**
+ * Conversion of a JCO column to the type of a {@link JCOValue} field.
+ * The value is read as {@link com.sap.mw.jco.JCO.Record#getValue(int)} does, the character columns are trimmed.
+ * A null value is never converted.
+ *
+ * @see JCOConverters
+ * @author Kwanil
+ */
+public interface JCOConverter<T> {
+
+	/**
+	 * @param value the value of the column, not null
+	 * @return converted value, null leaves a primitive field as it is
+	 */
+	T convert(Object value);
+
+	/**
+	 * Converter of the numeric columns read by {@link com.sap.mw.jco.JCO.Record#getInt(int)} without boxing.
+	 */
+	interface OfInt<T> extends JCOConverter<T> {
+
+		T convertInt(int value);
+
+		@Override
+		default T convert(Object value) {
+			return convertInt(JCOValues.toInt(value));
+		}
+	}
+
+	/**
+	 * Converter of the numeric columns read by {@link com.sap.mw.jco.JCO.Record#getLong(int)} without boxing.
+	 */
+	interface OfLong<T> extends JCOConverter<T> {
+
+		T convertLong(long value);
+
+		@Override
+		default T convert(Object value) {
+			return convertLong(JCOValues.toLong(value));
+		}
+	}
+
+	/**
+	 * Converter of the numeric columns read by {@link com.sap.mw.jco.JCO.Record#getDouble(int)} without boxing.
+	 */
+	interface OfDouble<T> extends JCOConverter<T> {
+
+		T convertDouble(double value);
+
+		@Override
+		default T convert(Object value) {
+			return convertDouble(JCOValues.toDouble(value));
+		}
+	}
+}
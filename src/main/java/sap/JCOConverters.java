@@ -0,0 +1,225 @@
+package sap;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ReflectionUtils.FieldCallback;
+import org.springframework.util.ReflectionUtils.FieldFilter;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the {@link JCOConverter}s per JCO type of the column and type of the field.
+ * A converter of {@link #ANY_TYPE} converts the columns of every JCO type.
+ * The registered converters take precedence over the built-in conversions, and are resolved once
+ * into the binding of a class, so register them before the first call.
+ * Enums (by name) and {@link java.util.Optional} fields (of the converted element) are converted by default.
+ *
+ * @see JCOTemplate#getConverters()
+ * @author Kwanil
+ */
+public class JCOConverters {
+	public static final int ANY_TYPE = -1;
+
+	private static final Map<Integer, JCOConverter<?>> NONE = Collections.emptyMap();
+
+	// copied on write, the bindings built before a registration are rebuilt by the version
+	private volatile Map<Class<?>, Map<Integer, JCOConverter<?>>> converters = new HashMap<Class<?>, Map<Integer, JCOConverter<?>>>();
+	private volatile int version = 0;
+	// whether a class has a field of a registered type, replaced on every registration
+	private volatile ConcurrentMap<Class<?>, Boolean> convertedClasses = new ConcurrentHashMap<Class<?>, Boolean>();
+
+	/**
+	 * @param targetType type of the field
+	 * @param converter converter of the columns of every JCO type
+	 * @return this
+	 */
+	public <T> JCOConverters register(Class<T> targetType, JCOConverter<? extends T> converter) {
+		return register(ANY_TYPE, targetType, converter);
+	}
+
+	/**
+	 * @param jcoType JCO type of the column, e.g. {@link com.sap.mw.jco.JCO#TYPE_CHAR}
+	 * @param targetType type of the field
+	 * @param converter converter of the columns of the JCO type
+	 * @return this
+	 */
+	public synchronized <T> JCOConverters register(int jcoType, Class<T> targetType, JCOConverter<? extends T> converter) {
+		Objects.requireNonNull(targetType, "targetType must not be null");
+		Objects.requireNonNull(converter, "converter must not be null");
+		Map<Class<?>, Map<Integer, JCOConverter<?>>> copy = new HashMap<Class<?>, Map<Integer, JCOConverter<?>>>(converters);
+		Map<Integer, JCOConverter<?>> byJcoType = new HashMap<Integer, JCOConverter<?>>(get(targetType));
+		byJcoType.put(jcoType, converter);
+		copy.put(targetType, byJcoType);
+		this.converters = copy;
+		this.version++;
+		this.convertedClasses = new ConcurrentHashMap<Class<?>, Boolean>();
+		return this;
+	}
+
+	public boolean isEmpty() {
+		return converters.isEmpty();
+	}
+
+	int version() {
+		return version;
+	}
+
+	/**
+	 * @param clazz Value Object class
+	 * @return true if a {@link JCOValue} field of the class, or the element of an Optional field, has a registered converter
+	 */
+	boolean converts(Class<?> clazz) {
+		// read before the converters, so a result of the previous converters is only put in the previous cache
+		ConcurrentMap<Class<?>, Boolean> convertedClasses = this.convertedClasses;
+		Boolean converted = convertedClasses.get(clazz);
+		if (converted == null) {
+			converted = hasConvertedField(clazz, converters);
+			convertedClasses.putIfAbsent(clazz, converted);
+		}
+		return converted;
+	}
+
+	private static boolean hasConvertedField(Class<?> clazz, final Map<Class<?>, Map<Integer, JCOConverter<?>>> converters) {
+		if (converters.isEmpty()) {
+			return false;
+		}
+		final boolean[] converted = new boolean[1];
+		ReflectionUtils.doWithFields(clazz, new FieldCallback() {
+			@Override
+			public void doWith(Field field) {
+				Class<?> type = field.getType() == Optional.class ? JCOFieldBinding.elementType(field) : field.getType();
+				converted[0] |= converters.containsKey(type);
+			}
+		}, new FieldFilter() {
+			@Override
+			public boolean matches(Field field) {
+				return field.isAnnotationPresent(JCOValue.class);
+			}
+		});
+		return converted[0];
+	}
+
+	/**
+	 * @param targetType type of the field
+	 * @return the converters of the type by JCO type, empty if none is registered
+	 */
+	Map<Integer, JCOConverter<?>> get(Class<?> targetType) {
+		Map<Integer, JCOConverter<?>> byJcoType = converters.get(targetType);
+		return byJcoType == null ? NONE : byJcoType;
+	}
+
+	/**
+	 * @param type type of the field or of the element of an Optional field
+	 * @param dateFormat date format of the field
+	 * @return the built-in conversion to the boxed type
+	 */
+	static JCOConverter<?> builtIn(final Class<?> type, final JCODateFormat dateFormat) {
+		if (type == String.class) {
+			return new JCOConverter<String>() {
+				public String convert(Object value) {
+					return value instanceof Date ? dateFormat.format((Date) value) : JCOValues.toString(value, null);
+				}
+			};
+		}
+		if (type == Integer.class || type == int.class) {
+			return new JCOConverter<Integer>() {
+				public Integer convert(Object value) {
+					return JCOValues.toInteger(value);
+				}
+			};
+		}
+		if (type == Long.class || type == long.class) {
+			return new JCOConverter<Long>() {
+				public Long convert(Object value) {
+					return JCOValues.toLongObject(value);
+				}
+			};
+		}
+		if (type == Double.class || type == double.class) {
+			return new JCOConverter<Double>() {
+				public Double convert(Object value) {
+					return JCOValues.toDoubleObject(value);
+				}
+			};
+		}
+		if (type == Short.class || type == short.class) {
+			return new JCOConverter<Short>() {
+				public Short convert(Object value) {
+					return JCOValues.toShortObject(value);
+				}
+			};
+		}
+		if (type == Byte.class || type == byte.class) {
+			return new JCOConverter<Byte>() {
+				public Byte convert(Object value) {
+					return JCOValues.toByteObject(value);
+				}
+			};
+		}
+		if (type == BigDecimal.class) {
+			return new JCOConverter<BigDecimal>() {
+				public BigDecimal convert(Object value) {
+					return JCOValues.toBigDecimal(value);
+				}
+			};
+		}
+		if (type == BigInteger.class) {
+			return new JCOConverter<BigInteger>() {
+				public BigInteger convert(Object value) {
+					return value instanceof BigDecimal ? ((BigDecimal) value).toBigInteger() : JCOValues.toBigInteger(value);
+				}
+			};
+		}
+		if (JCODateFormat.isDateType(type)) {
+			return new JCOConverter<Object>() {
+				public Object convert(Object value) {
+					return dateFormat.convert(value, type);
+				}
+			};
+		}
+		if (type.isEnum()) {
+			return enumConverter(type);
+		}
+		return new JCOConverter<Object>() {
+			public Object convert(Object value) {
+				return type.isInstance(value) ? value : null;
+			}
+		};
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static JCOConverter<?> enumConverter(final Class<?> type) {
+		final Map<String, Enum> constants = new HashMap<String, Enum>();
+		for (Object constant : type.getEnumConstants()) {
+			constants.put(((Enum) constant).name(), (Enum) constant);
+		}
+		return new JCOConverter<Enum>() {
+			public Enum convert(Object value) {
+				String name = JCOValues.toString(value, null);
+				if (name.isEmpty()) {
+					return null;
+				}
+				Enum constant = constants.get(name);
+				if (constant == null) {
+					throw new IllegalArgumentException("No enum constant " + type.getName() + "." + name);
+				}
+				return constant;
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+}
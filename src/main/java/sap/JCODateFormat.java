@@ -0,0 +1,151 @@
+package sap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.FastDateFormat;
+
+import java.text.ParseException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe, compiled date format of a {@link JCOValue#dateFormat()} pattern.
+ * The formats are cached per pattern, and the SAP initial dates (e.g. 00000000) are mapped to null.
+ * An empty pattern is the default pattern of the type, for both formatting and parsing, so a formatted date is parsed back.
+ * The java.time types are parsed with a {@link DateTimeFormatter} compiled on the first use. If the pattern is valid only
+ * for {@link java.text.SimpleDateFormat}, they are parsed with {@link FastDateFormat} and converted from the {@link Date}.
+ * It is public for the mappers generated by {@link JCOMapperProcessor}, which hold the format of every date field.
+ *
+ * @author Kwanil
+ */
+public final class JCODateFormat {
+	static final String SAP_DATE = "yyyyMMdd";
+	static final String SAP_DATE_TIME = "yyyyMMddHHmmss";
+
+	private static final ConcurrentMap<String, JCODateFormat> formats = new ConcurrentHashMap<String, JCODateFormat>();
+
+	private final FastDateFormat dateFormat;
+	private final String pattern;
+	private volatile DateTimeFormatter formatter;
+	// true if the pattern is not a DateTimeFormatter pattern
+	private volatile boolean legacy;
+
+	private JCODateFormat(String pattern) {
+		this.dateFormat = FastDateFormat.getInstance(pattern);
+		this.pattern = pattern;
+	}
+
+	/**
+	 * @param pattern date pattern, the default pattern is used if empty
+	 * @param defaultPattern default pattern
+	 * @return cached format of the pattern
+	 */
+	static JCODateFormat of(String pattern, String defaultPattern) {
+		String key = StringUtils.defaultIfEmpty(pattern, defaultPattern);
+		JCODateFormat format = formats.get(key);
+		if (format == null) {
+			format = new JCODateFormat(key);
+			JCODateFormat previous = formats.putIfAbsent(key, format);
+			if (previous != null) {
+				format = previous;
+			}
+		}
+		return format;
+	}
+
+	/**
+	 * @param pattern date pattern, the default pattern of the type is used if empty
+	 * @param type field type, {@link #SAP_DATE_TIME} is the default of {@link LocalDateTime} and {@link Instant}
+	 * @return cached format of the pattern
+	 */
+	public static JCODateFormat of(String pattern, Class<?> type) {
+		return of(pattern, type == LocalDateTime.class || type == Instant.class ? SAP_DATE_TIME : SAP_DATE);
+	}
+
+	/**
+	 * @param type field type
+	 * @return true if the type is {@link Date}, {@link LocalDate}, {@link LocalDateTime} or {@link Instant}
+	 */
+	static boolean isDateType(Class<?> type) {
+		return type == Date.class || type == LocalDate.class || type == LocalDateTime.class || type == Instant.class;
+	}
+
+	/**
+	 * @param text date text
+	 * @return true if the text is blank or an initial date such as 00000000
+	 */
+	static boolean isInitial(String text) {
+		return StringUtils.isBlank(text) || StringUtils.containsOnly(text.trim(), "0-.:/ ");
+	}
+
+	public String format(Date date) {
+		return date == null ? StringUtils.EMPTY : dateFormat.format(date);
+	}
+
+	/**
+	 * @param value {@link Date} or date text
+	 * @param type one of {@link #isDateType(Class)}
+	 * @return converted value, null if the value is initial or can not be parsed
+	 */
+	public Object convert(Object value, Class<?> type) {
+		if (value instanceof String) {
+			return parse(((String) value).trim(), type);
+		}
+		if (!(value instanceof Date)) {
+			return type.isInstance(value) ? value : null;
+		}
+		Date date = (Date) value;
+		if (type == Date.class) {
+			return date;
+		}
+		Instant instant = Instant.ofEpochMilli(date.getTime());
+		if (type == Instant.class) {
+			return instant;
+		}
+		LocalDateTime dateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+		return type == LocalDate.class ? dateTime.toLocalDate() : dateTime;
+	}
+
+	private Object parse(String text, Class<?> type) {
+		if (isInitial(text)) {
+			return null;
+		}
+		try {
+			if (type == Date.class) {
+				return dateFormat.parse(text);
+			}
+			DateTimeFormatter formatter = formatter();
+			if (formatter == null) {
+				return convert(dateFormat.parse(text), type);
+			}
+			if (type == LocalDate.class) {
+				return LocalDate.parse(text, formatter);
+			}
+			LocalDateTime dateTime = LocalDateTime.parse(text, formatter);
+			return type == Instant.class ? dateTime.atZone(ZoneId.systemDefault()).toInstant() : dateTime;
+		} catch (ParseException e) {
+			return null;
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the formatter of the pattern, null if the pattern is valid only for {@link java.text.SimpleDateFormat}
+	 */
+	private DateTimeFormatter formatter() {
+		DateTimeFormatter formatter = this.formatter;
+		if (formatter == null && !legacy) {
+			try {
+				formatter = DateTimeFormatter.ofPattern(pattern);
+				this.formatter = formatter;
+			} catch (IllegalArgumentException e) {
+				legacy = true;
+			}
+		}
+		return formatter;
+	}
+}
@@ -0,0 +1,327 @@
+package sap;
+
+import com.sap.mw.jco.IFunctionTemplate;
+import com.sap.mw.jco.IRepository;
+import com.sap.mw.jco.JCO;
+import com.sap.mw.jco.JCO.ParameterList;
+import com.sap.mw.jco.JCO.Table;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory {@link JCOBackend} serving scripted functions, so the calls of {@link JCOTemplate}
+ * run end-to-end without a SAP system, e.g. for the offline tests and the load tests.
+ * The metadata of a function is defined on its first call, so script the functions before the calls.
+ *
+ * <pre>
+ * JCOFakeBackend backend = new JCOFakeBackend();
+ * backend.function("Z_ITEMS")
+ *     .input("IV_TYPE", JCO.TYPE_CHAR, 1)
+ *     .output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+ *     .table("ET_ITEMS", 10000, JCOFakeBackend.column("MATNR", JCO.TYPE_CHAR, 18, values))
+ *     .latency(20, TimeUnit.MILLISECONDS);
+ * template.setBackend(backend);
+ * </pre>
+ *
+ * @author Kwanil
+ */
+public class JCOFakeBackend implements JCOBackend {
+	private final ConcurrentMap<String, FunctionScript> functions = new ConcurrentHashMap<String, FunctionScript>();
+	private final AtomicLong executions = new AtomicLong();
+	private final Repository repository;
+
+	public JCOFakeBackend() {
+		this("FAKE");
+	}
+
+	public JCOFakeBackend(String repositoryName) {
+		this.repository = new Repository(Objects.requireNonNull(repositoryName, "repositoryName must not be null"));
+	}
+
+	/**
+	 * @param functionName function name
+	 * @return script of the function, created if not scripted yet
+	 */
+	public FunctionScript function(String functionName) {
+		Objects.requireNonNull(functionName, "functionName must not be null");
+		FunctionScript script = functions.get(functionName);
+		if (script == null) {
+			script = new FunctionScript(functionName);
+			FunctionScript previous = functions.putIfAbsent(functionName, script);
+			if (previous != null) {
+				script = previous;
+			}
+		}
+		return script;
+	}
+
+	/**
+	 * @param name column name
+	 * @param jcoType JCO type
+	 * @param length byte length
+	 * @return column left initial in the rows
+	 */
+	public static Column column(String name, int jcoType, int length) {
+		return new Column(name, jcoType, length, 0, null);
+	}
+
+	/**
+	 * @param name column name
+	 * @param jcoType JCO type
+	 * @param length byte length
+	 * @param values values of the rows
+	 * @return column
+	 */
+	public static Column column(String name, int jcoType, int length, Values values) {
+		return new Column(name, jcoType, length, 0, values);
+	}
+
+	/**
+	 * @param name column name
+	 * @param jcoType JCO type
+	 * @param length byte length
+	 * @param decimals decimals of {@link JCO#TYPE_BCD}
+	 * @param values values of the rows
+	 * @return column
+	 */
+	public static Column column(String name, int jcoType, int length, int decimals, Values values) {
+		return new Column(name, jcoType, length, decimals, values);
+	}
+
+	/**
+	 * @return number of the functions executed
+	 */
+	public long getExecutions() {
+		return executions.get();
+	}
+
+	@Override
+	public IRepository getRepository() {
+		return repository;
+	}
+
+	@Override
+	public Session open() {
+		return new Session() {
+			@Override
+			public void execute(JCO.Function function) {
+				JCOFakeBackend.this.execute(function);
+			}
+
+			@Override
+			public void release() {
+			}
+		};
+	}
+
+	void execute(JCO.Function function) {
+		FunctionScript script = functions.get(function.getName());
+		if (script == null) {
+			throw new IllegalArgumentException("Not found function : " + function.getName());
+		}
+		executions.incrementAndGet();
+		if (script.latencyMillis > 0) {
+			try {
+				Thread.sleep(script.latencyMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted : " + function.getName(), e);
+			}
+		}
+		ParameterList exports = function.getExportParameterList();
+		for (Parameter output : script.outputs) {
+			JCOValues.setValue(exports, output.name, output.value);
+		}
+		for (TableScript tableScript : script.tables) {
+			if (tableScript.rows > 0) {
+				fill(function.getTableParameterList().getTable(tableScript.name), tableScript);
+			}
+		}
+		if (script.handler != null) {
+			script.handler.execute(function);
+		}
+	}
+
+	private void fill(Table table, TableScript script) {
+		table.deleteAllRows();
+		table.appendRows(script.rows);
+		for (int row = 0; row < script.rows; row++) {
+			table.setRow(row);
+			for (int i = 0; i < script.columns.length; i++) {
+				Values values = script.columns[i].values;
+				if (values != null) {
+					JCOValues.setValue(table, i, values.value(row));
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+
+	/**
+	 * Values of a column by row index
+	 */
+	public interface Values {
+		Object value(int row);
+	}
+
+	/**
+	 * Custom behavior run after the scripted export parameters and tables are filled
+	 */
+	public interface Handler {
+		void execute(JCO.Function function);
+	}
+
+	public static final class Column {
+		private final String name;
+		private final int jcoType;
+		private final int length;
+		private final int decimals;
+		private final Values values;
+
+		private Column(String name, int jcoType, int length, int decimals, Values values) {
+			this.name = Objects.requireNonNull(name, "name must not be null");
+			this.jcoType = jcoType;
+			this.length = length;
+			this.decimals = decimals;
+			this.values = values;
+		}
+	}
+
+	public static final class FunctionScript {
+		private final String name;
+		private final List<Parameter> inputs = new ArrayList<Parameter>();
+		private final List<Parameter> outputs = new ArrayList<Parameter>();
+		private final List<TableScript> tables = new ArrayList<TableScript>();
+		private volatile long latencyMillis = 0;
+		private volatile Handler handler;
+
+		private FunctionScript(String name) {
+			this.name = name;
+		}
+
+		public FunctionScript input(String name, int jcoType, int length) {
+			inputs.add(new Parameter(new Column(name, jcoType, length, 0, null), null));
+			return this;
+		}
+
+		/**
+		 * @param value value of the export parameter returned by every call
+		 */
+		public FunctionScript output(String name, int jcoType, int length, Object value) {
+			outputs.add(new Parameter(new Column(name, jcoType, length, 0, null), value));
+			return this;
+		}
+
+		/**
+		 * @param rows number of the rows returned by every call, 0 for an input table
+		 * @param columns columns of the table
+		 */
+		public FunctionScript table(String name, int rows, Column... columns) {
+			if (rows < 0) {
+				throw new IllegalArgumentException("rows must not be negative : " + rows);
+			}
+			tables.add(new TableScript(Objects.requireNonNull(name, "name must not be null"), rows, columns));
+			return this;
+		}
+
+		/**
+		 * @param latency time every call takes, like the round trip to SAP
+		 * @param unit unit of latency
+		 */
+		public FunctionScript latency(long latency, TimeUnit unit) {
+			this.latencyMillis = Objects.requireNonNull(unit).toMillis(latency);
+			return this;
+		}
+
+		public FunctionScript handler(Handler handler) {
+			this.handler = handler;
+			return this;
+		}
+
+		/**
+		 * Parameters and tables are offset by their byte lengths in the order they are scripted.
+		 */
+		private JCO.MetaData metaData(Repository repository) {
+			JCO.MetaData function = new JCO.MetaData(name);
+			int offset = 0;
+			for (Parameter input : inputs) {
+				function.addInfo(input.name, input.column.jcoType, input.column.length, offset, 0, JCO.IMPORT_PARAMETER, null);
+				offset += input.column.length;
+			}
+			offset = 0;
+			for (Parameter output : outputs) {
+				function.addInfo(output.name, output.column.jcoType, output.column.length, offset, 0, JCO.EXPORT_PARAMETER, null);
+				offset += output.column.length;
+			}
+			for (TableScript table : tables) {
+				String structureName = name + "_" + table.name;
+				JCO.MetaData structure = new JCO.MetaData(structureName);
+				int rowLength = 0;
+				for (Column column : table.columns) {
+					structure.addInfo(column.name, column.jcoType, column.length, rowLength, column.decimals);
+					rowLength += column.length;
+				}
+				repository.addStructureDefinitionToCache(structure);
+				function.addInfo(table.name, JCO.TYPE_TABLE, rowLength, 0, 0, 0, structureName);
+			}
+			return function;
+		}
+	}
+
+	private static final class Parameter {
+		private final String name;
+		private final Column column;
+		private final Object value;
+
+		Parameter(Column column, Object value) {
+			this.name = column.name;
+			this.column = column;
+			this.value = value;
+		}
+	}
+
+	private static final class TableScript {
+		private final String name;
+		private final int rows;
+		private final Column[] columns;
+
+		TableScript(String name, int rows, Column[] columns) {
+			this.name = name;
+			this.rows = rows;
+			this.columns = Arrays.copyOf(columns, columns.length);
+		}
+	}
+
+	/**
+	 * Repository defining the metadata of a scripted function on its first lookup
+	 */
+	private final class Repository extends JCO.BasicRepository {
+
+		Repository(String name) {
+			super(name);
+		}
+
+		@Override
+		public synchronized IFunctionTemplate getFunctionTemplate(String functionName) {
+			IFunctionTemplate template = super.getFunctionTemplate(functionName);
+			FunctionScript script = functions.get(functionName);
+			if (template == null && script != null) {
+				addFunctionInterfaceToCache(script.metaData(this));
+				template = super.getFunctionTemplate(functionName);
+			}
+			return template;
+		}
+	}
+}
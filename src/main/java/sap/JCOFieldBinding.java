@@ -0,0 +1,301 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import com.sap.mw.jco.JCO.Record;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Binding between one {@link JCOValue} field and its JCO key.
+ * The accessor, the converters and the compiled date format are resolved once when the binding is created.
+ * The registered converters of the column type take precedence over the built-in conversions.
+ *
+ * @see JCOBinding
+ * @author Kwanil
+ */
+final class JCOFieldBinding {
+	private final Field field;
+	private final Class<?> type;
+	private final JCOAccessor accessor;
+	private final String key;
+	private final JCODateFormat dateFormat;
+	private final boolean dateType;
+	private final boolean optional;
+	private final Map<Integer, JCOConverter<?>> converters;
+	private final JCOConverter<?> converter;
+	private final JCOConverter<?> builtIn;
+	// value of the field in a new instance, 0 or false for the primitive types
+	private final Object defaultValue;
+
+	JCOFieldBinding(Field field, JCOAccessorStrategy strategy, JCOConverters registry) {
+		JCOValue annotation = field.getAnnotation(JCOValue.class);
+		this.field = field;
+		this.type = field.getType();
+		this.accessor = JCOAccessor.of(field, strategy);
+		this.key = annotation.value();
+		this.optional = type == Optional.class;
+		Class<?> valueType = optional ? elementType(field) : type;
+		this.dateType = JCODateFormat.isDateType(valueType);
+		this.dateFormat = JCODateFormat.of(annotation.dateFormat(), valueType);
+		this.builtIn = JCOConverters.builtIn(valueType, dateFormat);
+		Map<Integer, JCOConverter<?>> registered = registry.get(valueType);
+		JCOConverter<?> any = registered.get(JCOConverters.ANY_TYPE);
+		this.converters = registered;
+		this.converter = any != null ? any : optional || valueType.isEnum() ? builtIn : null;
+		this.defaultValue = type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+	}
+
+	/**
+	 * @param field Optional field
+	 * @return the element type, Object if it is not a class
+	 */
+	static Class<?> elementType(Field field) {
+		Type generic = field.getGenericType();
+		if (generic instanceof ParameterizedType) {
+			Type argument = ((ParameterizedType) generic).getActualTypeArguments()[0];
+			if (argument instanceof Class) {
+				return (Class<?>) argument;
+			}
+		}
+		return Object.class;
+	}
+
+	/**
+	 * @param jcoType JCO type of the column
+	 * @return the registered converter of the column, or the built-in one of the enum and Optional fields
+	 */
+	private JCOConverter<?> converter(int jcoType) {
+		if (converters.isEmpty()) {
+			return converter;
+		}
+		JCOConverter<?> typed = converters.get(jcoType);
+		return typed != null ? typed : converter;
+	}
+
+	String getKey() {
+		return key;
+	}
+
+	Field getField() {
+		return field;
+	}
+
+	void mapping(JCO.Field jcoField, Object instance) {
+		mapping(jcoField.getValue(), jcoField.getType(), instance);
+	}
+
+	/**
+	 * Read the column with the getter of its JCO type, so numbers are not formatted and parsed again.
+	 *
+	 * @param record the table positioned on the row
+	 * @param index column index
+	 * @param jcoType JCO type of the column
+	 * @param instance instance to fill
+	 */
+	void mapping(Record record, int index, int jcoType, Object instance) {
+		JCOConverter<?> custom = converter(jcoType);
+		if (custom != null) {
+			convert(custom, record, index, jcoType, instance);
+			return;
+		}
+		if (JCOValues.isNumeric(jcoType)) {
+			if (type == int.class) {
+				accessor.setInt(instance, record.getInt(index));
+				return;
+			}
+			if (type == long.class) {
+				accessor.setLong(instance, record.getLong(index));
+				return;
+			}
+			if (type == double.class) {
+				accessor.setDouble(instance, record.getDouble(index));
+				return;
+			}
+			if (type == short.class) {
+				accessor.setShort(instance, record.getShort(index));
+				return;
+			}
+			if (type == byte.class) {
+				accessor.setByte(instance, record.getByte(index));
+				return;
+			}
+			if (type == BigDecimal.class) {
+				accessor.set(instance, record.getBigDecimal(index));
+				return;
+			}
+		} else if (JCOValues.isCharacter(jcoType)) {
+			String value = StringUtils.trim(record.getString(index));
+			if (type == String.class) {
+				accessor.set(instance, StringUtils.defaultString(value));
+			} else {
+				mapping(value, instance);
+			}
+			return;
+		}
+		mapping(record.getValue(index), instance);
+	}
+
+	/**
+	 * @param value the value of the column, typed by JCO as {@link com.sap.mw.jco.JCO.Record#getValue(int)}
+	 * @param jcoType JCO type of the column
+	 * @param instance instance to fill
+	 */
+	void mapping(Object value, int jcoType, Object instance) {
+		JCOConverter<?> custom = converter(jcoType);
+		if (custom != null) {
+			convert(custom, value instanceof String ? ((String) value).trim() : value, instance);
+		} else {
+			mapping(value, instance);
+		}
+	}
+
+	/**
+	 * The numeric columns are read without boxing if the converter is a primitive one.
+	 */
+	private void convert(JCOConverter<?> custom, Record record, int index, int jcoType, Object instance) {
+		if (JCOValues.isNumeric(jcoType)) {
+			if (custom instanceof JCOConverter.OfInt) {
+				set(((JCOConverter.OfInt<?>) custom).convertInt(record.getInt(index)), instance);
+				return;
+			}
+			if (custom instanceof JCOConverter.OfLong) {
+				set(((JCOConverter.OfLong<?>) custom).convertLong(record.getLong(index)), instance);
+				return;
+			}
+			if (custom instanceof JCOConverter.OfDouble) {
+				set(((JCOConverter.OfDouble<?>) custom).convertDouble(record.getDouble(index)), instance);
+				return;
+			}
+		}
+		Object value = JCOValues.isCharacter(jcoType) ? StringUtils.trim(record.getString(index)) : record.getValue(index);
+		convert(custom, value, instance);
+	}
+
+	private void convert(JCOConverter<?> custom, Object value, Object instance) {
+		if (value == null) {
+			if (optional) {
+				accessor.set(instance, Optional.empty());
+			}
+			return;
+		}
+		set(custom.convert(value), instance);
+	}
+
+	private void set(Object converted, Object instance) {
+		if (optional) {
+			accessor.set(instance, Optional.ofNullable(converted));
+		} else if (converted != null || !type.isPrimitive()) {
+			accessor.set(instance, converted);
+		}
+	}
+
+	private void mapping(Object value, Object instance) {
+		if (value instanceof String) {
+			mappingString(((String) value).trim(), instance);
+		} else if (value == null) {
+			if (type == String.class) {
+				accessor.set(instance, StringUtils.EMPTY);
+			}
+		} else if (value instanceof Date) {
+			if (type == String.class) {
+				accessor.set(instance, dateFormat.format((Date) value));
+			} else if (dateType) {
+				accessor.set(instance, dateFormat.convert(value, type));
+			}
+		} else if (value instanceof Number) {
+			mappingNumber((Number) value, instance);
+		} else if (type.isInstance(value)) {
+			accessor.set(instance, value);
+		}
+	}
+
+	private void mappingNumber(Number value, Object instance) {
+		if (type == int.class) {
+			accessor.setInt(instance, value.intValue());
+		} else if (type == long.class) {
+			accessor.setLong(instance, value.longValue());
+		} else if (type == double.class) {
+			accessor.setDouble(instance, value.doubleValue());
+		} else if (type == short.class) {
+			accessor.setShort(instance, value.shortValue());
+		} else if (type == byte.class) {
+			accessor.setByte(instance, value.byteValue());
+		} else if (type == Integer.class) {
+			accessor.set(instance, value.intValue());
+		} else if (type == Long.class) {
+			accessor.set(instance, value.longValue());
+		} else if (type == Double.class) {
+			accessor.set(instance, value.doubleValue());
+		} else if (type == Short.class) {
+			accessor.set(instance, value.shortValue());
+		} else if (type == Byte.class) {
+			accessor.set(instance, value.byteValue());
+		} else if (type == BigDecimal.class) {
+			accessor.set(instance, value instanceof BigDecimal ? value : new BigDecimal(value.toString()));
+		} else if (type == BigInteger.class) {
+			accessor.set(instance, value instanceof BigDecimal ? ((BigDecimal) value).toBigInteger() : BigInteger.valueOf(value.longValue()));
+		} else if (type == String.class) {
+			accessor.set(instance, value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString());
+		} else if (type.isInstance(value)) {
+			accessor.set(instance, value);
+		}
+	}
+
+	/**
+	 * Only the character columns are parsed, a blank value leaves the field as it is unless the field is a String.
+	 */
+	private void mappingString(String value, Object instance) {
+		if (type == String.class) {
+			accessor.set(instance, value);
+		} else if (dateType) {
+			accessor.set(instance, dateFormat.convert(value, type));
+		} else if (value.isEmpty()) {
+			return;
+		} else if (type == int.class) {
+			accessor.setInt(instance, Integer.parseInt(value));
+		} else if (type == long.class) {
+			accessor.setLong(instance, Long.parseLong(value));
+		} else if (type == double.class) {
+			accessor.setDouble(instance, Double.parseDouble(value));
+		} else if (type == short.class) {
+			accessor.setShort(instance, Short.parseShort(value));
+		} else if (type == byte.class) {
+			accessor.setByte(instance, Byte.parseByte(value));
+		} else {
+			Object converted = builtIn.convert(value);
+			if (converted != null) {
+				accessor.set(instance, converted);
+			}
+		}
+	}
+
+	/**
+	 * Set the field back to the default of its type, as a reused instance is filled with the next row.
+	 *
+	 * @param instance instance to reset
+	 */
+	void clear(Object instance) {
+		accessor.set(instance, defaultValue);
+	}
+
+	Object get(Object source) {
+		return accessor.get(source);
+	}
+
+	void input(Record jcoObject, Object source) {
+		JCOValues.setValue(jcoObject, key, accessor.get(source));
+	}
+
+	void input(Record jcoObject, int index, Object source) {
+		JCOValues.setValue(jcoObject, index, accessor.get(source));
+	}
+}
@@ -0,0 +1,164 @@
+package sap;
+
+import com.sap.mw.jco.IFunctionTemplate;
+import com.sap.mw.jco.IRepository;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of {@link IFunctionTemplate} per repository and function name.
+ * A {@link com.sap.mw.jco.JCO.Function} is created from the cached metadata for every call,
+ * so the repository is asked for the metadata only once.
+ * The cache is read without a lock, and the least recently used template is evicted when the cache is full.
+ * The use of a template is its last access time, so the eviction is an approximate LRU under concurrent access.
+ *
+ * @see JCOTemplate#setFunctionTemplateCache(JCOFunctionTemplateCache)
+ * @author Kwanil
+ */
+public class JCOFunctionTemplateCache {
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final int maxSize;
+	private volatile long timeToLiveMillis = 0;
+	private final ConcurrentMap<Key, Cached> templates = new ConcurrentHashMap<Key, Cached>();
+	// guards the size check and the eviction, not the reads
+	private final Object evictionLock = new Object();
+
+	public JCOFunctionTemplateCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public JCOFunctionTemplateCache(final int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive : " + maxSize);
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param timeToLive time to live of a template, 0 (default) never expires
+	 * @param unit unit of timeToLive
+	 */
+	public void setTimeToLive(long timeToLive, TimeUnit unit) {
+		this.timeToLiveMillis = Objects.requireNonNull(unit).toMillis(timeToLive);
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int size() {
+		return templates.size();
+	}
+
+	/**
+	 * @param repository repository of the function
+	 * @param functionName function name
+	 * @return cached template, fetched from the repository if not cached or expired
+	 */
+	public IFunctionTemplate get(IRepository repository, String functionName) {
+		Objects.requireNonNull(repository, "repository must not be null");
+		Objects.requireNonNull(functionName, "functionName must not be null");
+		Key key = new Key(repository, functionName);
+		Cached cached = templates.get(key);
+		if (cached != null && !cached.isExpired(timeToLiveMillis)) {
+			cached.accessedAt = System.nanoTime();
+			return cached.template;
+		}
+		// a concurrent miss only fetches the same metadata twice
+		IFunctionTemplate template = repository.getFunctionTemplate(functionName);
+		if (template == null) {
+			throw new IllegalArgumentException("Not found function : " + functionName);
+		}
+		templates.put(key, new Cached(template));
+		if (templates.size() > maxSize) {
+			evict();
+		}
+		return template;
+	}
+
+	/**
+	 * Remove the least recently used templates until the cache fits maxSize.
+	 */
+	private void evict() {
+		synchronized (evictionLock) {
+			while (templates.size() > maxSize) {
+				Map.Entry<Key, Cached> eldest = null;
+				for (Map.Entry<Key, Cached> entry : templates.entrySet()) {
+					if (eldest == null || entry.getValue().accessedAt < eldest.getValue().accessedAt) {
+						eldest = entry;
+					}
+				}
+				if (eldest == null) {
+					return;
+				}
+				templates.remove(eldest.getKey(), eldest.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Fetch the templates of the functions ahead of the first call
+	 *
+	 * @param repository repository of the functions
+	 * @param functionNames function names
+	 */
+	public void preload(IRepository repository, Collection<String> functionNames) {
+		for (String functionName : functionNames) {
+			get(repository, functionName);
+		}
+	}
+
+	public void invalidate() {
+		templates.clear();
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+
+	private static final class Key {
+		private final IRepository repository;
+		private final String functionName;
+
+		Key(IRepository repository, String functionName) {
+			this.repository = repository;
+			this.functionName = functionName;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return repository == other.repository && functionName.equals(other.functionName);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(repository) + functionName.hashCode();
+		}
+	}
+
+	private static final class Cached {
+		private final IFunctionTemplate template;
+		private final long loadedAt = System.currentTimeMillis();
+		private volatile long accessedAt = System.nanoTime();
+
+		Cached(IFunctionTemplate template) {
+			this.template = template;
+		}
+
+		boolean isExpired(long timeToLiveMillis) {
+			return timeToLiveMillis > 0 && System.currentTimeMillis() - loadedAt > timeToLiveMillis;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.springframework.core.Ordered;
+
+import java.util.Set;
+
+/**
+ * Lookup of the {@link JCOMapper}s generated by {@link JCOMapperProcessor}.
+ * The generated mapper of {@code a.b.Outer.Inner} is {@code a.b.Outer_Inner_JCOMapper}.
+ *
+ * @author Kwanil
+ */
+final class JCOGeneratedMappers {
+	static final String SUFFIX = "_JCOMapper";
+
+	// classes without a generated mapper are cached as NONE
+	@SuppressWarnings("rawtypes")
+	private static final JCOMapper NONE = new JCOMapMapper();
+	// cached on the mapped class itself, so a class and its mapper are unloaded with their class loader
+	@SuppressWarnings("rawtypes")
+	private static final ClassValue<JCOMapper> mappers = new ClassValue<JCOMapper>() {
+		@Override
+		protected JCOMapper computeValue(Class<?> type) {
+			return load(type);
+		}
+	};
+
+	private JCOGeneratedMappers() {
+	}
+
+	/**
+	 * @param nestedName binary name of the mapped class without the package, e.g. {@code Outer$Inner}
+	 * @return simple name of the generated mapper
+	 */
+	static String simpleName(String nestedName) {
+		return nestedName.replace('$', '_') + SUFFIX;
+	}
+
+	/**
+	 * @param clazz mapped class
+	 * @return the generated mapper, null if the class has no generated mapper
+	 */
+	@SuppressWarnings("rawtypes")
+	static JCOMapper find(Class<?> clazz) {
+		JCOMapper mapper = mappers.get(clazz);
+		return mapper == NONE ? null : mapper;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static JCOMapper load(Class<?> clazz) {
+		if (clazz.isPrimitive() || clazz.isArray() || clazz.getClassLoader() == null) {
+			return NONE;
+		}
+		String packageName = clazz.getPackage() == null ? "" : clazz.getPackage().getName();
+		String nestedName = packageName.isEmpty() ? clazz.getName() : clazz.getName().substring(packageName.length() + 1);
+		String simpleName = simpleName(nestedName);
+		String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		try {
+			Class<?> mapperClass = Class.forName(name, true, clazz.getClassLoader());
+			if (!JCOMapper.class.isAssignableFrom(mapperClass)) {
+				return NONE;
+			}
+			JCOMapper mapper = (JCOMapper) mapperClass.newInstance();
+			return mapper.canRead(clazz) ? mapper : NONE;
+		} catch (ClassNotFoundException e) {
+			return NONE;
+		} catch (ReflectiveOperationException e) {
+			return NONE;
+		} catch (LinkageError e) {
+			return NONE;
+		}
+	}
+
+	/**
+	 * Entry of the generated mappers in the mappers of a template, it delegates to the generated mapper of the class.
+	 * It has the lowest precedence and is placed just ahead of {@link JCOAnnotationMapper},
+	 * so an added mapper is still selected ahead of it.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	static final class Lookup implements JCOTableMapper<Object>, JCOTableInputMapper<Object>, Ordered {
+
+		/**
+		 * The mappers generated by {@link JCOMapperProcessor} map and fill whole tables.
+		 */
+		@Override
+		public boolean canRead(Class<?> output) {
+			JCOMapper mapper = find(output);
+			return mapper instanceof JCOTableMapper && mapper instanceof JCOTableInputMapper;
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.LOWEST_PRECEDENCE;
+		}
+
+		@Override
+		public void mapping(JCO.Field field, Object target) {
+			find(target.getClass()).mapping(field, target);
+		}
+
+		@Override
+		public void input(JCO.Record jcoObject, Object source) {
+			find(source.getClass()).input(jcoObject, source);
+		}
+
+		@Override
+		public JCORowMapping<Object> rowMapping(JCO.Record record, Class<?> output) {
+			return ((JCOTableMapper) find(output)).rowMapping(record, output);
+		}
+
+		@Override
+		public JCORowMapping<Object> rowMapping(JCO.Record record, Class<?> output, Set<String> columns) {
+			return ((JCOTableMapper) find(output)).rowMapping(record, output, columns);
+		}
+
+		@Override
+		public JCORowWriter<Object> rowWriter(JCO.Record record, Class<?> input) {
+			return ((JCOTableInputMapper) find(input)).rowWriter(record, input);
+		}
+	}
+}
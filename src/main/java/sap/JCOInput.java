@@ -12,6 +12,15 @@ public class JCOInput {
 	private Object input;
 	private final Map<String, List<Object>> inputTables = new HashMap<String, List<Object>>();
 
+	private String chunkTableName;
+	private int chunkSize;
+	// output tables appended across the chunks, empty to append every output table
+	private Set<String> mergedTableNames = Collections.emptySet();
+
+	// projected columns per output table, and the input tables the projections are pushed down to
+	private final Map<String, Set<String>> projections = new HashMap<String, Set<String>>();
+	private final Map<String, String[]> pushdowns = new HashMap<String, String[]>();
+
 	private JCOInput(String functionName) {
 		this(functionName, null);
 	}
@@ -73,6 +82,163 @@ public class JCOInput {
 		return this;
 	}
 	
+	/**
+	 * Split the input table into chunks of the size, and send each chunk as its own call.
+	 * The rows of the merged output tables are appended in the order of the chunks,
+	 * the other output tables (headers, messages) are taken from the first chunk, as every chunk returns them again.
+	 * Without merged tables, the rows of every output table are appended.
+	 * Only the table calls ({@link JCOTemplate#executeTable(JCOInput, Class)}, {@link JCOTemplate#executeTables(JCOInput, Class)}) are split.
+	 *
+	 * @param tableName input table to split
+	 * @param chunkSize max number of the rows of a call
+	 * @param mergedTableNames output tables whose rows depend on the chunk, empty to append every output table
+	 * @return this
+	 * @see JCOTemplate#executeTables(JCOInput, JCOTableMappingClass)
+	 */
+	public JCOInput chunk(String tableName, int chunkSize, String... mergedTableNames) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive : " + chunkSize);
+		}
+		this.chunkTableName = Objects.requireNonNull(tableName, "tableName must not be null");
+		this.chunkSize = chunkSize;
+		this.mergedTableNames = new HashSet<String>(Arrays.asList(mergedTableNames));
+		return this;
+	}
+
+	/**
+	 * @param tableName output table
+	 * @return true if the rows of the table are appended across the chunks, false if the table of the first chunk is kept
+	 */
+	boolean isMerged(String tableName) {
+		return mergedTableNames.isEmpty() || mergedTableNames.contains(tableName);
+	}
+
+	/**
+	 * @return the inputs of the chunks, or this if the input is not split
+	 */
+	List<JCOInput> chunks() {
+		List<Object> rows = chunkTableName == null ? null : inputTables.get(chunkTableName);
+		if (rows == null || rows.size() <= chunkSize) {
+			return Collections.singletonList(this);
+		}
+		List<JCOInput> chunks = new ArrayList<JCOInput>();
+		for (int from = 0; from < rows.size(); from += chunkSize) {
+			JCOInput chunk = copy();
+			chunk.inputTables.put(chunkTableName, rows.subList(from, Math.min(from + chunkSize, rows.size())));
+			chunks.add(chunk);
+		}
+		return chunks;
+	}
+
+	/**
+	 * A pushed down table without a projection is projected to the keys of the {@link JCOValue} fields of its output class.
+	 *
+	 * @param mappingInfo output class per output table
+	 * @return this, or a copy with the projections of the pushed down tables
+	 * @throws IllegalArgumentException if a pushed down table has no projection and no Value Object output class
+	 */
+	JCOInput resolvePushdowns(Map<String, Class<?>> mappingInfo) {
+		JCOInput resolved = this;
+		for (String tableName : pushdowns.keySet()) {
+			if (projections.containsKey(tableName)) {
+				continue;
+			}
+			Class<?> outputClass = mappingInfo.get(tableName);
+			Set<String> keys = outputClass == null ? Collections.<String> emptySet() : JCOBinding.keys(outputClass);
+			if (keys.isEmpty()) {
+				throw new IllegalArgumentException("Not found projection of the pushed down table : " + tableName);
+			}
+			if (resolved == this) {
+				resolved = copy();
+			}
+			resolved.projections.put(tableName, keys);
+		}
+		return resolved;
+	}
+
+	private JCOInput copy() {
+		JCOInput copy = new JCOInput(functionName, outputTableNames);
+		copy.input = input;
+		copy.inputTables.putAll(inputTables);
+		copy.chunkTableName = chunkTableName;
+		copy.chunkSize = chunkSize;
+		copy.mergedTableNames = mergedTableNames;
+		copy.projections.putAll(projections);
+		copy.pushdowns.putAll(pushdowns);
+		return copy;
+	}
+
+	/**
+	 * Read and map only the columns of the output table, the others are left out of the mapped rows.
+	 *
+	 * @param tableName output table
+	 * @param columns projected columns
+	 * @return this
+	 */
+	public JCOInput project(String tableName, String... columns) {
+		Objects.requireNonNull(tableName, "tableName must not be null");
+		if (columns.length == 0) {
+			throw new IllegalArgumentException("columns must not be empty");
+		}
+		this.projections.put(tableName, new LinkedHashSet<String>(Arrays.asList(columns)));
+		return this;
+	}
+
+	/**
+	 * Project the output table to the keys of the {@link JCOValue} fields of the class.
+	 *
+	 * @param tableName output table
+	 * @param outputClass Value Object class mapped from the table
+	 * @return this
+	 */
+	public JCOInput project(String tableName, Class<?> outputClass) {
+		Set<String> keys = JCOBinding.keys(Objects.requireNonNull(outputClass, "outputClass must not be null"));
+		return project(tableName, keys.toArray(new String[keys.size()]));
+	}
+
+	/**
+	 * Send the projection of the output table to SAP as the rows of an input table, instead of projecting the read rows,
+	 * e.g. {@code pushdown("ET_DATA", "IT_FIELDS", "FIELDNAME")} for a function returning the requested fields as the columns of ET_DATA.
+	 * The rows are mapped by their columns, so it does not fit RFC_READ_TABLE: the FIELDS of RFC_READ_TABLE select the fields,
+	 * but DATA returns every row as one fixed-width WA string, which must be parsed by the offsets of FIELDS.
+	 * Without {@link #project(String, String...)}, the keys of the {@link JCOValue} fields of the output class are sent,
+	 * and a call mapping the table to a Map fails.
+	 *
+	 * @param tableName projected output table
+	 * @param fieldsTableName input table of the field names
+	 * @param fieldNameColumn column of the field name
+	 * @return this
+	 */
+	public JCOInput pushdown(String tableName, String fieldsTableName, String fieldNameColumn) {
+		this.pushdowns.put(Objects.requireNonNull(tableName, "tableName must not be null"), new String[] {
+				Objects.requireNonNull(fieldsTableName, "fieldsTableName must not be null"),
+				Objects.requireNonNull(fieldNameColumn, "fieldNameColumn must not be null") });
+		return this;
+	}
+
+	/**
+	 * @param tableName output table
+	 * @return the columns read from the table, null to read all the columns
+	 */
+	Set<String> getProjection(String tableName) {
+		return pushdowns.containsKey(tableName) ? null : projections.get(tableName);
+	}
+
+	/**
+	 * @return the input table and its field name column per pushed down output table
+	 */
+	Map<String, String[]> getPushdowns() {
+		return pushdowns;
+	}
+
+	/**
+	 * @param tableName output table
+	 * @return the projected columns of the table, pushed down or not
+	 */
+	Set<String> getProjectedColumns(String tableName) {
+		return projections.get(tableName);
+	}
+
 	public static JCOInput of(String functionName, String... outputTables){
 		return new JCOInput(functionName, Arrays.asList(outputTables));
 	}
@@ -2,16 +2,18 @@ package sap;
 
 import com.sap.mw.jco.JCO.Field;
 import com.sap.mw.jco.JCO.Record;
-import org.apache.commons.lang3.ObjectUtils;
-import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Kwanil
  */
 @SuppressWarnings("rawtypes")
-public class JCOMapMapper implements JCOMapper<Map> {
+public class JCOMapMapper implements JCOTableMapper<Map>, JCOTableInputMapper<Map> {
 	@Override
 	public boolean canRead(Class<?> output) {
 		return Map.class.isAssignableFrom(output);
@@ -20,18 +22,111 @@ public class JCOMapMapper implements JCOMapper<Map> {
 	@SuppressWarnings("unchecked")
 	@Override
 	public void mapping(Field field, Map map) {
-		Object value = field.getValue();
+		map.put(field.getName(), trim(field.getValue()));
+	}
+
+	@Override
+	public JCORowMapping<Map> rowMapping(Record record, Class<?> output) {
+		return rowMapping(record, output, null);
+	}
+
+	/**
+	 * Only the projected columns are put to the maps.
+	 */
+	@Override
+	public JCORowMapping<Map> rowMapping(Record record, Class<?> output, Set<String> columns) {
+		final int[] indexes = columnIndexes(record, columns);
+		final String[] names = columnNames(record, indexes);
+		return new JCOValueRowMapping<Map>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public void mapping(Record record, Map map) {
+				for (int i = 0; i < names.length; i++) {
+					map.put(names[i], trim(record.getValue(indexes[i])));
+				}
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public void mapping(Object[] values, Map map) {
+				for (int i = 0; i < names.length; i++) {
+					map.put(names[i], trim(values[indexes[i]]));
+				}
+			}
+
+			@Override
+			public boolean clear(Map map) {
+				map.clear();
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * The keys of the maps are resolved to the column indexes as they appear.
+	 * The null values and the keys that are not a column of the table are not written.
+	 */
+	@Override
+	public JCORowWriter<Map> rowWriter(Record record, Class<?> input) {
+		final Map<Object, Integer> indexes = new HashMap<Object, Integer>();
+		return new JCORowWriter<Map>() {
+			@Override
+			public void input(Record record, Map map) {
+				for (Object entry : map.entrySet()) {
+					Object key = ((Map.Entry) entry).getKey();
+					Integer index = indexes.get(key);
+					if (index == null) {
+						index = JCOValues.indexOf(record, String.valueOf(key));
+						indexes.put(key, index);
+					}
+					if (index >= 0) {
+						JCOValues.setValue(record, index, ((Map.Entry) entry).getValue());
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * @param columns the projected columns, null for all the columns
+	 * @return the indexes of the projected columns of the record
+	 */
+	static int[] columnIndexes(Record record, Set<String> columns) {
+		List<Integer> projected = new ArrayList<Integer>();
+		for (int i = 0; i < record.getFieldCount(); i++) {
+			if (columns == null || columns.contains(record.getName(i))) {
+				projected.add(i);
+			}
+		}
+		int[] indexes = new int[projected.size()];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = projected.get(i);
+		}
+		return indexes;
+	}
+
+	static String[] columnNames(Record record, int[] indexes) {
+		String[] names = new String[indexes.length];
+		for (int i = 0; i < indexes.length; i++) {
+			names[i] = record.getName(indexes[i]);
+		}
+		return names;
+	}
+
+	static Object trim(Object value) {
 		if(value instanceof String) {
-			value = ((String) value).trim();
+			return ((String) value).trim();
 		}
-		map.put(field.getName(), value);
+		return value;
 	}
 
+	/**
+	 * The null values are not written, as {@link JCOAnnotationMapper} does not write the null fields.
+	 */
 	@Override
 	public void input(Record jcoObject, Map map) {
 		for(Object key :  map.keySet()) {
-			Object value = ObjectUtils.defaultIfNull(map.get(key), StringUtils.EMPTY);
-			jcoObject.setValue(String.valueOf(value), String.valueOf(key));
+			JCOValues.setValue(jcoObject, String.valueOf(key), map.get(key));
 		}
 	}
 
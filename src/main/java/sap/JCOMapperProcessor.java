@@ -0,0 +1,472 @@
+package sap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor that generates a {@link JCOTableMapper} for every class declaring {@link JCOValue} fields.
+ * The generated mapper reads and writes the columns straight-line, without reflection and converter lookups,
+ * and is picked up by {@link JCOTemplate} ahead of {@link JCOAnnotationMapper}.
+ * The columns are read with the typed getters of the field type and the date formats are resolved once per generated mapper,
+ * so a class is mapped the same as {@link JCOAnnotationMapper} maps it, e.g. a blank column leaves a number field as it is.
+ * <p>
+ * A class is skipped (and mapped by {@link JCOAnnotationMapper} at runtime) if it is private, abstract,
+ * a non-static inner class, has no accessible no-arg constructor, or has a field that is neither accessible
+ * nor exposed by an accessible getter and setter.
+ *
+ * @see JCOGeneratedMappers
+ * @author Kwanil
+ */
+@SupportedAnnotationTypes("sap.JCOValue")
+public class JCOMapperProcessor extends AbstractProcessor {
+
+	private static final Map<String, Conversion> conversions = new HashMap<String, Conversion>();
+	static {
+		// supported type -> typed reads of the numeric columns, the character columns and the other values
+		conversions.put("java.lang.String", new Conversion(null, null, null));
+		conversions.put("int", new Conversion("getInt", "Integer.parseInt(%s)", "%s.intValue()"));
+		conversions.put("java.lang.Integer", new Conversion(null, "Integer.valueOf(%s)", "Integer.valueOf(%s.intValue())"));
+		conversions.put("long", new Conversion("getLong", "Long.parseLong(%s)", "%s.longValue()"));
+		conversions.put("java.lang.Long", new Conversion(null, "Long.valueOf(%s)", "Long.valueOf(%s.longValue())"));
+		conversions.put("short", new Conversion("getShort", "Short.parseShort(%s)", "%s.shortValue()"));
+		conversions.put("java.lang.Short", new Conversion(null, "Short.valueOf(%s)", "Short.valueOf(%s.shortValue())"));
+		conversions.put("byte", new Conversion("getByte", "Byte.parseByte(%s)", "%s.byteValue()"));
+		conversions.put("java.lang.Byte", new Conversion(null, "Byte.valueOf(%s)", "Byte.valueOf(%s.byteValue())"));
+		conversions.put("double", new Conversion("getDouble", "Double.parseDouble(%s)", "%s.doubleValue()"));
+		conversions.put("java.lang.Double", new Conversion(null, "Double.valueOf(%s)", "Double.valueOf(%s.doubleValue())"));
+		conversions.put("java.math.BigDecimal", new Conversion("getBigDecimal", "new java.math.BigDecimal(%s)",
+				"(%1$s instanceof java.math.BigDecimal ? (java.math.BigDecimal) %1$s : new java.math.BigDecimal(%1$s.toString()))"));
+		conversions.put("java.math.BigInteger", new Conversion(null, "new java.math.BigInteger(%s)",
+				"(%1$s instanceof java.math.BigDecimal ? ((java.math.BigDecimal) %1$s).toBigInteger() : java.math.BigInteger.valueOf(%1$s.longValue()))"));
+		conversions.put("java.util.Date", new Conversion(null, null, null));
+		conversions.put("java.time.LocalDate", new Conversion(null, null, null));
+		conversions.put("java.time.LocalDateTime", new Conversion(null, null, null));
+		conversions.put("java.time.Instant", new Conversion(null, null, null));
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Set<TypeElement> types = new LinkedHashSet<TypeElement>();
+		for (VariableElement field : ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(JCOValue.class))) {
+			types.add((TypeElement) field.getEnclosingElement());
+		}
+		for (TypeElement type : types) {
+			try {
+				generate(type);
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Fail to generate JCOMapper : " + e, type);
+			}
+		}
+		return false;
+	}
+
+	private void generate(TypeElement type) throws IOException {
+		String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		String reason = unsupported(type);
+		List<Binding> bindings = new ArrayList<Binding>();
+		if (reason == null) {
+			reason = bindings(type, packageName, bindings);
+		}
+		if (reason != null) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "JCOMapper is not generated, " + reason, type);
+			return;
+		}
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		String simpleName = JCOGeneratedMappers.simpleName(packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1));
+		String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+		try {
+			writer.write(source(packageName, simpleName, type.getQualifiedName().toString(), bindings));
+		} finally {
+			writer.close();
+		}
+	}
+
+	private String unsupported(TypeElement type) {
+		Set<Modifier> modifiers = type.getModifiers();
+		if (type.getKind() != ElementKind.CLASS || modifiers.contains(Modifier.ABSTRACT)) {
+			return "not a concrete class";
+		}
+		if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+			return "local class";
+		}
+		for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+			if (element.getModifiers().contains(Modifier.PRIVATE)) {
+				return "private class";
+			}
+			if (element.getEnclosingElement() instanceof TypeElement && !element.getModifiers().contains(Modifier.STATIC)) {
+				return "inner class";
+			}
+		}
+		if (!((DeclaredType) type.asType()).getTypeArguments().isEmpty()) {
+			return "generic class";
+		}
+		List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+		for (ExecutableElement constructor : constructors) {
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return null;
+			}
+		}
+		return "no accessible no-arg constructor";
+	}
+
+	private String bindings(TypeElement type, String packageName, List<Binding> bindings) {
+		for (TypeElement current = type; current != null; current = superclass(current)) {
+			for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+				JCOValue annotation = field.getAnnotation(JCOValue.class);
+				if (annotation == null) {
+					continue;
+				}
+				String fieldType = processingEnv.getTypeUtils().erasure(field.asType()).toString();
+				Conversion conversion = conversions.get(fieldType);
+				if (conversion == null) {
+					return "unsupported type " + fieldType + " of " + field;
+				}
+				if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.FINAL)) {
+					return "static or final field " + field;
+				}
+				boolean direct = accessible(field, packageName);
+				String read = getter(current, field, packageName);
+				String write = setter(current, field, packageName);
+				if (!direct && (read == null || write == null)) {
+					return "field " + field + " is not accessible";
+				}
+				String name = field.getSimpleName().toString();
+				Binding binding = new Binding();
+				binding.index = bindings.size();
+				binding.key = annotation.value();
+				binding.read = read != null ? read + "()" : name;
+				binding.writePrefix = write != null ? write + "(" : name + " = ";
+				binding.writeSuffix = write != null ? ")" : "";
+				binding.type = fieldType;
+				binding.primitive = field.asType().getKind().isPrimitive();
+				binding.conversion = conversion;
+				binding.dateFormat = literal(annotation.dateFormat());
+				binding.defaultValue = binding.primitive ? "(" + fieldType + ") 0" : "null";
+				bindings.add(binding);
+			}
+		}
+		return null;
+	}
+
+	private TypeElement superclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+		return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+	}
+
+	private boolean accessible(Element element, String packageName) {
+		Set<Modifier> modifiers = element.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE)) {
+			return false;
+		}
+		if (modifiers.contains(Modifier.PUBLIC)) {
+			return true;
+		}
+		String declaringPackage = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+		return declaringPackage.equals(packageName);
+	}
+
+	private String getter(TypeElement type, VariableElement field, String packageName) {
+		String name = capitalize(field.getSimpleName().toString());
+		for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+			String methodName = method.getSimpleName().toString();
+			if ((methodName.equals("get" + name) || methodName.equals("is" + name)) && method.getParameters().isEmpty()
+					&& processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())
+					&& !method.getModifiers().contains(Modifier.STATIC) && accessible(method, packageName)) {
+				return methodName;
+			}
+		}
+		return null;
+	}
+
+	private String setter(TypeElement type, VariableElement field, String packageName) {
+		String name = "set" + capitalize(field.getSimpleName().toString());
+		for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+			if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == 1
+					&& processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())
+					&& !method.getModifiers().contains(Modifier.STATIC) && accessible(method, packageName)) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	private String source(String packageName, String simpleName, String typeName, List<Binding> bindings) {
+		Map<String, List<Binding>> keys = new LinkedHashMap<String, List<Binding>>();
+		for (Binding binding : bindings) {
+			if (!keys.containsKey(binding.key)) {
+				keys.put(binding.key, new ArrayList<Binding>());
+			}
+			keys.get(binding.key).add(binding);
+		}
+		List<String> columns = new ArrayList<String>(keys.keySet());
+
+		StringBuilder source = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+		source.append("import com.sap.mw.jco.JCO;\n");
+		source.append("import org.apache.commons.lang3.StringUtils;\n");
+		source.append("import sap.JCODateFormat;\n");
+		source.append("import sap.JCORowMapping;\n");
+		source.append("import sap.JCORowWriter;\n");
+		source.append("import sap.JCOTableInputMapper;\n");
+		source.append("import sap.JCOTableMapper;\n");
+		source.append("import sap.JCOValueRowMapping;\n");
+		source.append("import sap.JCOValues;\n\n");
+		source.append("/**\n * Generated by {@link sap.JCOMapperProcessor} for {@link ").append(typeName).append("}. Do not edit.\n */\n");
+		source.append("public final class ").append(simpleName).append(" implements JCOTableMapper<").append(typeName)
+				.append(">, JCOTableInputMapper<").append(typeName).append("> {\n");
+		for (Binding binding : bindings) {
+			if (binding.conversion.parse == null) {
+				source.append("\tprivate static final JCODateFormat f").append(binding.index).append(" = JCODateFormat.of(")
+						.append(binding.dateFormat).append(", ").append(binding.type).append(".class);\n");
+			}
+		}
+		source.append("\n");
+
+		source.append("\t@Override\n\tpublic boolean canRead(Class<?> output) {\n");
+		source.append("\t\treturn ").append(typeName).append(".class.equals(output);\n\t}\n\n");
+
+		source.append("\t@Override\n\tpublic void mapping(JCO.Field field, ").append(typeName).append(" target) {\n");
+		source.append("\t\tswitch (field.getName()) {\n");
+		for (String column : columns) {
+			source.append("\t\tcase ").append(literal(column)).append(": {\n");
+			source.append("\t\t\tObject v = field.getValue();\n");
+			for (Binding binding : keys.get(column)) {
+				binding.readValue(source, 3, "v");
+			}
+			source.append("\t\t\tbreak;\n\t\t}\n");
+		}
+		source.append("\t\tdefault:\n\t\t\tbreak;\n\t\t}\n\t}\n\n");
+
+		source.append("\t@Override\n\tpublic void input(JCO.Record record, ").append(typeName).append(" source) {\n");
+		for (Binding binding : bindings) {
+			binding.writeValue(source, 2, literal(binding.key));
+		}
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n\tpublic JCORowMapping<").append(typeName).append("> rowMapping(JCO.Record record, Class<?> output) {\n");
+		source.append("\t\treturn rowMapping(record, output, null);\n\t}\n\n");
+
+		source.append("\t@Override\n\tpublic JCORowMapping<").append(typeName)
+				.append("> rowMapping(JCO.Record record, Class<?> output, java.util.Set<String> columns) {\n");
+		for (int i = 0; i < columns.size(); i++) {
+			String column = literal(columns.get(i));
+			source.append("\t\tfinal int c").append(i).append(" = columns == null || columns.contains(").append(column)
+					.append(") ? JCOValues.indexOf(record, ").append(column).append(") : -1;\n");
+			source.append("\t\tfinal boolean n").append(i).append(" = c").append(i).append(" >= 0 && JCOValues.isNumeric(record.getType(c")
+					.append(i).append("));\n");
+			source.append("\t\tfinal boolean s").append(i).append(" = c").append(i).append(" >= 0 && JCOValues.isCharacter(record.getType(c")
+					.append(i).append("));\n");
+		}
+		source.append("\t\treturn new JCOValueRowMapping<").append(typeName).append(">() {\n");
+		source.append("\t\t\t@Override\n\t\t\tpublic void mapping(JCO.Record record, ").append(typeName).append(" target) {\n");
+		for (int i = 0; i < columns.size(); i++) {
+			source.append("\t\t\t\tif (c").append(i).append(" >= 0) {\n");
+			for (Binding binding : keys.get(columns.get(i))) {
+				binding.readRecord(source, 5, i);
+			}
+			source.append("\t\t\t\t}\n");
+		}
+		source.append("\t\t\t}\n\n");
+		source.append("\t\t\t@Override\n\t\t\tpublic void mapping(Object[] values, ").append(typeName).append(" target) {\n");
+		for (int i = 0; i < columns.size(); i++) {
+			source.append("\t\t\t\tif (c").append(i).append(" >= 0) {\n");
+			source.append("\t\t\t\t\tObject v = values[c").append(i).append("];\n");
+			for (Binding binding : keys.get(columns.get(i))) {
+				binding.readValue(source, 5, "v");
+			}
+			source.append("\t\t\t\t}\n");
+		}
+		source.append("\t\t\t}\n\n");
+		source.append("\t\t\t@Override\n\t\t\tpublic boolean clear(").append(typeName).append(" target) {\n");
+		for (Binding binding : bindings) {
+			source.append("\t\t\t\ttarget.").append(binding.write(binding.defaultValue)).append(";\n");
+		}
+		source.append("\t\t\t\treturn true;\n\t\t\t}\n\t\t};\n\t}\n\n");
+
+		source.append("\t@Override\n\tpublic JCORowWriter<").append(typeName).append("> rowWriter(JCO.Record record, Class<?> input) {\n");
+		for (int i = 0; i < bindings.size(); i++) {
+			source.append("\t\tfinal int w").append(i).append(" = JCOValues.indexOf(record, ").append(literal(bindings.get(i).key)).append(");\n");
+		}
+		source.append("\t\treturn new JCORowWriter<").append(typeName).append(">() {\n");
+		source.append("\t\t\t@Override\n\t\t\tpublic void input(JCO.Record record, ").append(typeName).append(" source) {\n");
+		for (int i = 0; i < bindings.size(); i++) {
+			source.append("\t\t\t\tif (w").append(i).append(" >= 0) {\n");
+			bindings.get(i).writeValue(source, 5, "w" + i);
+			source.append("\t\t\t\t}\n");
+		}
+		source.append("\t\t\t}\n\t\t};\n\t}\n}\n");
+		return source.toString();
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private static String literal(String value) {
+		StringBuilder literal = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				literal.append('\\').append(c);
+			} else if (c < 0x20 || c > 0x7e) {
+				literal.append(String.format("\\u%04x", (int) c));
+			} else {
+				literal.append(c);
+			}
+		}
+		return literal.append('"').toString();
+	}
+
+	/**
+	 * Typed reads of a supported type, the String and date types have none and are read by their date format.
+	 */
+	private static final class Conversion {
+		// getter of the numeric columns, null if the numeric columns are read as values
+		private final String getter;
+		// expression parsing a trimmed, non-blank String
+		private final String parse;
+		// expression converting a Number
+		private final String number;
+
+		Conversion(String getter, String parse, String number) {
+			this.getter = getter;
+			this.parse = parse;
+			this.number = number;
+		}
+	}
+
+	/**
+	 * One field and its JCO key. The generated reads map a column the same as {@link JCOAnnotationMapper} maps it:
+	 * a character column is trimmed and a blank one leaves a number field as it is, a null value leaves the field
+	 * as it is (a String field is set to empty), and a value of another type is not read.
+	 */
+	private static final class Binding {
+		private int index;
+		private String key;
+		private String read;
+		private String writePrefix;
+		private String writeSuffix;
+		private String type;
+		private boolean primitive;
+		private Conversion conversion;
+		private String dateFormat;
+		private String defaultValue;
+
+		String write(String value) {
+			return writePrefix + value + writeSuffix;
+		}
+
+		private boolean isString() {
+			return type.equals("java.lang.String");
+		}
+
+		/**
+		 * Read the column of the current row with the getter of its JCO type, c, n and s are the index,
+		 * the numeric and the character flags of the column.
+		 */
+		void readRecord(StringBuilder source, int indent, int column) {
+			String c = "c" + column;
+			String v = "v" + index;
+			if (conversion.getter != null) {
+				line(source, indent, "if (n" + column + ") {");
+				line(source, indent + 1, "target." + write("record." + conversion.getter + "(" + c + ")") + ";");
+				line(source, indent, "} else if (s" + column + ") {");
+			} else {
+				line(source, indent, "if (s" + column + ") {");
+			}
+			if (isString()) {
+				line(source, indent + 1, "target." + write("StringUtils.trimToEmpty(record.getString(" + c + "))") + ";");
+			} else if (conversion.parse == null) {
+				line(source, indent + 1, "String " + v + " = record.getString(" + c + ");");
+				line(source, indent + 1, "if (" + v + " != null) {");
+				line(source, indent + 2, "target." + write(convertDate(v)) + ";");
+				line(source, indent + 1, "}");
+			} else {
+				line(source, indent + 1, "String " + v + " = StringUtils.trimToEmpty(record.getString(" + c + "));");
+				line(source, indent + 1, "if (!" + v + ".isEmpty()) {");
+				line(source, indent + 2, "target." + write(String.format(conversion.parse, v)) + ";");
+				line(source, indent + 1, "}");
+			}
+			line(source, indent, "} else {");
+			line(source, indent + 1, "Object " + v + " = record.getValue(" + c + ");");
+			readValue(source, indent + 1, v);
+			line(source, indent, "}");
+		}
+
+		/**
+		 * Read a value typed as {@link com.sap.mw.jco.JCO.Record#getValue(int)}, or the String of a character column.
+		 */
+		void readValue(StringBuilder source, int indent, String value) {
+			if (isString()) {
+				line(source, indent, "if (" + value + " == null) {");
+				line(source, indent + 1, "target." + write("\"\"") + ";");
+				line(source, indent, "} else if (" + value + " instanceof java.util.Date) {");
+				line(source, indent + 1, "target." + write("f" + index + ".format((java.util.Date) " + value + ")") + ";");
+				line(source, indent, "} else if (" + value + " instanceof java.math.BigDecimal) {");
+				line(source, indent + 1, "target." + write("((java.math.BigDecimal) " + value + ").toPlainString()") + ";");
+				line(source, indent, "} else if (" + value + " instanceof String || " + value + " instanceof Number) {");
+				line(source, indent + 1, "target." + write(value + ".toString().trim()") + ";");
+				line(source, indent, "}");
+			} else if (conversion.parse == null) {
+				line(source, indent, "if (" + value + " instanceof String || " + value + " instanceof java.util.Date) {");
+				line(source, indent + 1, "target." + write(convertDate(value)) + ";");
+				line(source, indent, "}");
+			} else {
+				String text = "t" + index;
+				line(source, indent, "if (" + value + " instanceof String) {");
+				line(source, indent + 1, "String " + text + " = ((String) " + value + ").trim();");
+				line(source, indent + 1, "if (!" + text + ".isEmpty()) {");
+				line(source, indent + 2, "target." + write(String.format(conversion.parse, text)) + ";");
+				line(source, indent + 1, "}");
+				line(source, indent, "} else if (" + value + " instanceof Number) {");
+				line(source, indent + 1, "target." + write(String.format(conversion.number, "((Number) " + value + ")")) + ";");
+				line(source, indent, "}");
+			}
+		}
+
+		private String convertDate(String value) {
+			return "(" + type + ") f" + index + ".convert(" + value + ", " + type + ".class)";
+		}
+
+		/**
+		 * Write the field by the column, a primitive is written with its typed setter and a null value is not written.
+		 */
+		void writeValue(StringBuilder source, int indent, String column) {
+			if (primitive) {
+				line(source, indent, "record.setValue(source." + read + ", " + column + ");");
+			} else {
+				line(source, indent, "JCOValues.setValue(record, " + column + ", source." + read + ");");
+			}
+		}
+
+		private static void line(StringBuilder source, int indent, String line) {
+			for (int i = 0; i < indent; i++) {
+				source.append('\t');
+			}
+			source.append(line).append('\n');
+		}
+	}
+}
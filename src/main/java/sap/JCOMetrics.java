@@ -0,0 +1,53 @@
+package sap;
+
+/**
+ * Listener of the metrics of the calls, e.g. an adapter to a meter registry.
+ * It is called once per call and phase (never per row), so it must return quickly and be thread-safe.
+ * Every method is a no-op by default.
+ *
+ * @see JCOTemplate#setMetrics(JCOMetrics)
+ * @author Kwanil
+ */
+public interface JCOMetrics {
+	JCOMetrics NONE = new JCOMetrics() {
+	};
+
+	enum Phase {
+		/** client acquired from the pool, including the wait for a free client */
+		CONNECT,
+		/** function created from the metadata of the repository */
+		METADATA,
+		/** input object and input tables written to the function */
+		INPUT,
+		/** function executed on SAP */
+		EXECUTE,
+		/** output and tables mapped to the output objects */
+		MAPPING
+	}
+
+	/**
+	 * @param functionName function name
+	 * @param phase phase of the call
+	 * @param nanos elapsed time of the phase
+	 */
+	default void record(String functionName, Phase phase, long nanos) {
+	}
+
+	/**
+	 * @param functionName function name
+	 * @param tableName output table
+	 * @param rows number of the rows mapped
+	 * @param columns number of the columns of the table
+	 * @param bytes bytes of the rows mapped, by the byte lengths of the columns
+	 */
+	default void table(String functionName, String tableName, int rows, int columns, long bytes) {
+	}
+
+	/**
+	 * @param functionName function name
+	 * @param phase phase failed
+	 * @param error error of the phase
+	 */
+	default void error(String functionName, Phase phase, Throwable error) {
+	}
+}
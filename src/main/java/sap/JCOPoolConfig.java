@@ -0,0 +1,125 @@
+package sap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.Properties;
+
+/**
+ * Configuration of the JCO client pool.
+ * The values are read from the properties (e.g. jco.properties) with the keys below, or set on the instance.
+ * <ul>
+ * <li>{@value #MAX_CONNECTIONS} : max number of connections in use (default 5)</li>
+ * <li>{@value #MAX_POOL_SIZE} : max number of connections kept open (default max connections)</li>
+ * <li>{@value #MAX_WAIT_TIME} : max wait time for a free connection in milliseconds</li>
+ * <li>{@value #CONNECTION_TIMEOUT} : idle time in milliseconds after which a connection is closed</li>
+ * <li>{@value #TIMEOUT_CHECK_PERIOD} : period in milliseconds of the idle connection check</li>
+ * </ul>
+ * A value of 0 keeps the JCO default.
+ *
+ * @see JCOTemplate#setPoolConfig(JCOPoolConfig)
+ * @author Kwanil
+ */
+public class JCOPoolConfig {
+	public static final String MAX_CONNECTIONS = "jco.pool.max_connections";
+	public static final String MAX_POOL_SIZE = "jco.pool.max_pool_size";
+	public static final String MAX_WAIT_TIME = "jco.pool.max_wait_time";
+	public static final String CONNECTION_TIMEOUT = "jco.pool.connection_timeout";
+	public static final String TIMEOUT_CHECK_PERIOD = "jco.pool.timeout_check_period";
+
+	private static final int DEFAULT_MAX_CONNECTIONS = 5;
+
+	private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+	private int maxPoolSize;
+	private long maxWaitTime;
+	private long connectionTimeout;
+	private long timeoutCheckPeriod;
+
+	public static JCOPoolConfig of(Properties properties) {
+		JCOPoolConfig config = new JCOPoolConfig();
+		config.setMaxConnections((int) value(properties, MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS));
+		config.setMaxPoolSize((int) value(properties, MAX_POOL_SIZE, 0));
+		config.setMaxWaitTime(value(properties, MAX_WAIT_TIME, 0));
+		config.setConnectionTimeout(value(properties, CONNECTION_TIMEOUT, 0));
+		config.setTimeoutCheckPeriod(value(properties, TIMEOUT_CHECK_PERIOD, 0));
+		return config;
+	}
+
+	private static long value(Properties properties, String key, long defaultValue) {
+		String value = StringUtils.trim(properties.getProperty(key));
+		return StringUtils.isEmpty(value) ? defaultValue : Long.parseLong(value);
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		if (maxConnections <= 0) {
+			throw new IllegalArgumentException("maxConnections must be positive : " + maxConnections);
+		}
+		this.maxConnections = maxConnections;
+	}
+
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	public void setMaxPoolSize(int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	public long getMaxWaitTime() {
+		return maxWaitTime;
+	}
+
+	public void setMaxWaitTime(long maxWaitTime) {
+		this.maxWaitTime = maxWaitTime;
+	}
+
+	public long getConnectionTimeout() {
+		return connectionTimeout;
+	}
+
+	public void setConnectionTimeout(long connectionTimeout) {
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	public long getTimeoutCheckPeriod() {
+		return timeoutCheckPeriod;
+	}
+
+	public void setTimeoutCheckPeriod(long timeoutCheckPeriod) {
+		this.timeoutCheckPeriod = timeoutCheckPeriod;
+	}
+
+	/**
+	 * @return a copy of this configuration, so the pool in effect is not changed by the setters
+	 */
+	JCOPoolConfig copy() {
+		JCOPoolConfig copy = new JCOPoolConfig();
+		copy.maxConnections = maxConnections;
+		copy.maxPoolSize = maxPoolSize;
+		copy.maxWaitTime = maxWaitTime;
+		copy.connectionTimeout = connectionTimeout;
+		copy.timeoutCheckPeriod = timeoutCheckPeriod;
+		return copy;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return EqualsBuilder.reflectionEquals(this, obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return HashCodeBuilder.reflectionHashCode(this);
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+}
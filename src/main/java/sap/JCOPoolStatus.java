@@ -0,0 +1,73 @@
+package sap;
+
+import com.sap.mw.jco.JCO.Pool;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Snapshot of the utilization of a JCO client pool.
+ *
+ * @see JCOTemplate#getPoolStatus()
+ * @author Kwanil
+ */
+public class JCOPoolStatus {
+	private final String poolName;
+	private final int maxConnections;
+	private final int maxPoolSize;
+	private final int currentPoolSize;
+	private final int numUsed;
+	private final int maxUsed;
+
+	JCOPoolStatus(String poolName, Pool pool) {
+		this.poolName = poolName;
+		this.maxConnections = pool.getMaxConnections();
+		this.maxPoolSize = pool.getMaxPoolSize();
+		this.currentPoolSize = pool.getCurrentPoolSize();
+		this.numUsed = pool.getNumUsed();
+		this.maxUsed = pool.getMaxUsed();
+	}
+
+	public String getPoolName() {
+		return poolName;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	/**
+	 * @return number of open connections
+	 */
+	public int getCurrentPoolSize() {
+		return currentPoolSize;
+	}
+
+	/**
+	 * @return number of connections in use
+	 */
+	public int getNumUsed() {
+		return numUsed;
+	}
+
+	/**
+	 * @return peak number of connections in use
+	 */
+	public int getMaxUsed() {
+		return maxUsed;
+	}
+
+	/**
+	 * @return connections in use / max connections
+	 */
+	public double getUtilization() {
+		return maxConnections == 0 ? 0d : (double) numUsed / maxConnections;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+}
@@ -0,0 +1,339 @@
+package sap;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.time.temporal.Temporal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the mapped tables of the read-only functions.
+ * Only the functions registered by {@link #cache(String, long, TimeUnit)} are cached, keyed by
+ * the system of the template (its client pool or backend), the function name, the input (the {@link JCOValue} values of an input object, a map or the input tables)
+ * and the output tables with their mapping classes, projections and pushdowns.
+ * An input object or an input row without a {@link JCOValue} field can not be keyed, and is rejected.
+ * The values of the input are copied into the key, so an input modified after the call does not change the key.
+ * Concurrent calls of the same key wait for one call to SAP instead of calling it each.
+ * The least recently used result is evicted when the cache is full.
+ * The calls of a key share the rows, so the lists of the tables are unmodifiable and the rows must not be modified.
+ *
+ * @see JCOTemplate#setResultCache(JCOResultCache)
+ * @author Kwanil
+ */
+public class JCOResultCache {
+	private static final int DEFAULT_MAX_SIZE = 10000;
+
+	private final int maxSize;
+	private final ConcurrentMap<String, Long> timeToLives = new ConcurrentHashMap<String, Long>();
+	private final Map<Key, Cached> results;
+	private final ConcurrentMap<Key, CompletableFuture<JCOTables>> loading = new ConcurrentHashMap<Key, CompletableFuture<JCOTables>>();
+	private final ConcurrentMap<Class<?>, JCOBinding> bindings = new ConcurrentHashMap<Class<?>, JCOBinding>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong loadCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public JCOResultCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public JCOResultCache(final int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive : " + maxSize);
+		}
+		this.maxSize = maxSize;
+		this.results = new LinkedHashMap<Key, Cached>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+				if (size() > maxSize) {
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Cache the results of the function
+	 *
+	 * @param functionName read-only function
+	 * @param timeToLive time to live of a result, 0 never expires
+	 * @param unit unit of timeToLive
+	 * @return this
+	 */
+	public JCOResultCache cache(String functionName, long timeToLive, TimeUnit unit) {
+		Objects.requireNonNull(functionName, "functionName must not be null");
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("timeToLive must not be negative : " + timeToLive);
+		}
+		timeToLives.put(functionName, Objects.requireNonNull(unit).toMillis(timeToLive));
+		return this;
+	}
+
+	public boolean isCached(String functionName) {
+		return timeToLives.containsKey(functionName);
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return number of the calls to SAP, less than the misses if the concurrent misses waited for one call
+	 */
+	public long getLoadCount() {
+		return loadCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	public void invalidate() {
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+	public void invalidate(String functionName) {
+		synchronized (results) {
+			for (Iterator<Key> keys = results.keySet().iterator(); keys.hasNext();) {
+				if (keys.next().functionName.equals(functionName)) {
+					keys.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param system key of the system called, so the templates of other systems sharing the cache do not share the results
+	 * @param input input of the call
+	 * @param mappingClass output tables and their mapping classes
+	 * @param loader call to SAP on a miss
+	 * @return the cached tables, or the tables loaded
+	 */
+	JCOTables get(Object system, JCOInput input, JCOTableMappingClass mappingClass, Callable<JCOTables> loader)
+			throws IOException, ReflectiveOperationException {
+		Key key = key(Objects.requireNonNull(system), input, mappingClass);
+		long timeToLive = timeToLives.get(key.functionName);
+		Cached cached;
+		synchronized (results) {
+			cached = results.get(key);
+		}
+		if (cached != null && !cached.isExpired(timeToLive)) {
+			hitCount.incrementAndGet();
+			return cached.tables;
+		}
+		missCount.incrementAndGet();
+		CompletableFuture<JCOTables> future = new CompletableFuture<JCOTables>();
+		CompletableFuture<JCOTables> inFlight = loading.putIfAbsent(key, future);
+		if (inFlight != null) {
+			return await(inFlight);
+		}
+		try {
+			loadCount.incrementAndGet();
+			JCOTables tables = loader.call().unmodifiable();
+			synchronized (results) {
+				results.put(key, new Cached(tables));
+			}
+			future.complete(tables);
+			return tables;
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+			throw rethrow(e);
+		} finally {
+			loading.remove(key, future);
+		}
+	}
+
+	private JCOTables await(CompletableFuture<JCOTables> inFlight) throws IOException, ReflectiveOperationException {
+		try {
+			return inFlight.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the call", e);
+		} catch (ExecutionException e) {
+			throw rethrow(e.getCause());
+		}
+	}
+
+	private static RuntimeException rethrow(Throwable cause) throws IOException, ReflectiveOperationException {
+		if (cause instanceof IOException) {
+			throw (IOException) cause;
+		}
+		if (cause instanceof ReflectiveOperationException) {
+			throw (ReflectiveOperationException) cause;
+		}
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		throw new IllegalStateException(cause);
+	}
+
+	private Key key(Object system, JCOInput input, JCOTableMappingClass mappingClass) {
+		Map<String, Object> tables = new TreeMap<String, Object>();
+		Set<String> tableNames = new TreeSet<String>(input.getTableNames());
+		tableNames.addAll(mappingClass.getMappingInfo().keySet());
+		for (String tableName : tableNames) {
+			Class<?> mapping = mappingClass.getMappingInfo().get(tableName);
+			String[] pushdown = input.getPushdowns().get(tableName);
+			tables.put(tableName, Arrays.asList(mapping == null ? null : mapping.getName(), input.getProjectedColumns(tableName),
+					pushdown == null ? null : Arrays.asList(pushdown), input.isMerged(tableName)));
+		}
+		Map<String, Object> inputTables = new TreeMap<String, Object>();
+		for (Map.Entry<String, List<Object>> entry : input.getInputTables().entrySet()) {
+			List<Object> rows = new ArrayList<Object>(entry.getValue().size());
+			for (Object row : entry.getValue()) {
+				rows.add(canonical(row));
+			}
+			inputTables.put(entry.getKey(), rows);
+		}
+		return new Key(system, input.getFunctionName(), canonical(input.getInput()), inputTables, tables);
+	}
+
+	/**
+	 * @return the values of the input by JCO key
+	 * @throws IllegalArgumentException if the input is not a map and has no {@link JCOValue} field
+	 */
+	private Object canonical(Object input) {
+		if (input == null) {
+			return null;
+		}
+		if (input instanceof Map) {
+			Map<String, Object> values = new TreeMap<String, Object>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) input).entrySet()) {
+				values.put(String.valueOf(entry.getKey()), copy(entry.getValue()));
+			}
+			return values;
+		}
+		JCOBinding binding = binding(input.getClass());
+		if (binding.fields().length == 0) {
+			throw new IllegalArgumentException("Input of a cached function must be a Map or have a JCOValue field : " + input.getClass().getName());
+		}
+		Map<String, Object> values = new TreeMap<String, Object>();
+		for (JCOFieldBinding field : binding.fields()) {
+			values.put(field.getKey(), copy(field.get(input)));
+		}
+		return values;
+	}
+
+	/**
+	 * @return the value if it is immutable, a copy of a date, the elements of an array or a collection,
+	 *         and the String of the other values
+	 */
+	private static Object copy(Object value) {
+		if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character
+				|| value instanceof Enum || value instanceof Temporal) {
+			return value;
+		}
+		if (value instanceof Date) {
+			return new Date(((Date) value).getTime());
+		}
+		if (value instanceof Optional) {
+			return Optional.ofNullable(copy(((Optional<?>) value).orElse(null)));
+		}
+		if (value.getClass().isArray()) {
+			List<Object> elements = new ArrayList<Object>(Array.getLength(value));
+			for (int i = 0; i < Array.getLength(value); i++) {
+				elements.add(copy(Array.get(value, i)));
+			}
+			return elements;
+		}
+		if (value instanceof Collection) {
+			List<Object> elements = new ArrayList<Object>(((Collection<?>) value).size());
+			for (Object element : (Collection<?>) value) {
+				elements.add(copy(element));
+			}
+			return elements;
+		}
+		return value.getClass().getName() + ":" + value;
+	}
+
+	private JCOBinding binding(Class<?> clazz) {
+		JCOBinding binding = bindings.get(clazz);
+		if (binding == null) {
+			binding = JCOBinding.of(clazz, JCOAccessorStrategy.REFLECTION, new JCOConverters());
+			JCOBinding previous = bindings.putIfAbsent(clazz, binding);
+			if (previous != null) {
+				binding = previous;
+			}
+		}
+		return binding;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+
+	private static final class Key {
+		private final Object system;
+		private final String functionName;
+		private final Object input;
+		private final Map<String, Object> inputTables;
+		private final Map<String, Object> tables;
+		private final int hashCode;
+
+		Key(Object system, String functionName, Object input, Map<String, Object> inputTables, Map<String, Object> tables) {
+			this.system = system;
+			this.functionName = functionName;
+			this.input = input;
+			this.inputTables = inputTables;
+			this.tables = tables;
+			this.hashCode = Objects.hash(system, functionName, input, inputTables, tables);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return hashCode == other.hashCode && system.equals(other.system) && functionName.equals(other.functionName)
+					&& Objects.equals(input, other.input)
+					&& inputTables.equals(other.inputTables) && tables.equals(other.tables);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	private static final class Cached {
+		private final JCOTables tables;
+		private final long loadedAt = System.currentTimeMillis();
+
+		Cached(JCOTables tables) {
+			this.tables = tables;
+		}
+
+		boolean isExpired(long timeToLiveMillis) {
+			return timeToLiveMillis > 0 && System.currentTimeMillis() - loadedAt > timeToLiveMillis;
+		}
+	}
+}
@@ -0,0 +1,275 @@
+package sap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact {@link Map} of a table row.
+ * The rows of a table share one schema of the column names, and each row only holds an array of the values,
+ * so no key or entry is copied per row. The keys are iterated in the order of the columns.
+ * A key out of the schema is kept in a map of its own.
+ * A row is serialized with its entries, and has a schema of its own when it is deserialized.
+ *
+ * @see JCORowMapMapper
+ * @author Kwanil
+ */
+public class JCORowMap extends AbstractMap<String, Object> implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static final Schema EMPTY = new Schema(new String[0]);
+	// value of a removed column
+	private static final Object ABSENT = new Object();
+
+	private transient Schema schema = EMPTY;
+	private transient Object[] values = new Object[0];
+	private transient Map<String, Object> others;
+	private transient int size = 0;
+
+	public JCORowMap() {
+	}
+
+	/**
+	 * @param schema column names shared by the rows
+	 * @param values values of the columns, owned by this
+	 */
+	void init(Schema schema, Object[] values) {
+		this.schema = schema;
+		this.values = values;
+		this.others = null;
+		this.size = values.length;
+	}
+
+	@Override
+	public int size() {
+		return size + (others == null ? 0 : others.size());
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		int index = schema.indexOf(key);
+		if (index >= 0) {
+			return values[index] != ABSENT;
+		}
+		return others != null && others.containsKey(key);
+	}
+
+	@Override
+	public Object get(Object key) {
+		int index = schema.indexOf(key);
+		if (index >= 0) {
+			Object value = values[index];
+			return value == ABSENT ? null : value;
+		}
+		return others == null ? null : others.get(key);
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		int index = schema.indexOf(key);
+		if (index >= 0) {
+			Object previous = values[index];
+			values[index] = value;
+			if (previous == ABSENT) {
+				size++;
+				return null;
+			}
+			return previous;
+		}
+		if (others == null) {
+			others = new LinkedHashMap<String, Object>();
+		}
+		return others.put(key, value);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		int index = schema.indexOf(key);
+		if (index >= 0) {
+			Object previous = values[index];
+			if (previous == ABSENT) {
+				return null;
+			}
+			values[index] = ABSENT;
+			size--;
+			return previous;
+		}
+		return others == null ? null : others.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = ABSENT;
+		}
+		size = 0;
+		others = null;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return JCORowMap.this.size();
+			}
+		};
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size());
+		for (Entry<String, Object> entry : entrySet()) {
+			out.writeObject(entry.getKey());
+			out.writeObject(entry.getValue());
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int size = in.readInt();
+		String[] names = new String[size];
+		Object[] values = new Object[size];
+		for (int i = 0; i < size; i++) {
+			names[i] = (String) in.readObject();
+			values[i] = in.readObject();
+		}
+		init(new Schema(names), values);
+	}
+
+	private final class EntryIterator implements Iterator<Entry<String, Object>> {
+		private int next = nextColumn(0);
+		private int last = -1;
+		private Iterator<Entry<String, Object>> rest;
+
+		private int nextColumn(int from) {
+			while (from < values.length && values[from] == ABSENT) {
+				from++;
+			}
+			return from;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next < values.length) {
+				return true;
+			}
+			if (rest == null && others != null) {
+				rest = others.entrySet().iterator();
+			}
+			return rest != null && rest.hasNext();
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if (next < values.length) {
+				last = next;
+				next = nextColumn(next + 1);
+				return new ColumnEntry(last);
+			}
+			last = -1;
+			return rest.next();
+		}
+
+		@Override
+		public void remove() {
+			if (last >= 0) {
+				values[last] = ABSENT;
+				size--;
+				last = -1;
+			} else if (rest != null) {
+				rest.remove();
+			} else {
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	private final class ColumnEntry implements Entry<String, Object> {
+		private final int index;
+
+		ColumnEntry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public String getKey() {
+			return schema.names[index];
+		}
+
+		@Override
+		public Object getValue() {
+			Object value = values[index];
+			return value == ABSENT ? null : value;
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			Object previous = getValue();
+			values[index] = value;
+			return previous;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> other = (Entry<?, ?>) o;
+			Object value = getValue();
+			return getKey().equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+	/**
+	 * Column names of a table, resolved once and shared by the rows.
+	 */
+	static final class Schema {
+		private final String[] names;
+		private final Map<String, Integer> indexes;
+
+		Schema(String[] names) {
+			this.names = names;
+			this.indexes = new HashMap<String, Integer>(names.length * 2);
+			for (int i = 0; i < names.length; i++) {
+				indexes.put(names[i], i);
+			}
+		}
+
+		int size() {
+			return names.length;
+		}
+
+		int indexOf(Object name) {
+			Integer index = indexes.get(name);
+			return index == null ? -1 : index;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package sap;
+
+import com.sap.mw.jco.JCO.Record;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mapper of the {@link JCORowMap} rows.
+ * The column names of a table are resolved into one schema, and a row only copies its values.
+ * It writes the input as {@link JCOMapMapper} does.
+ *
+ * @author Kwanil
+ */
+@SuppressWarnings("rawtypes")
+public class JCORowMapMapper extends JCOMapMapper {
+	@Override
+	public boolean canRead(Class<?> output) {
+		return JCORowMap.class.isAssignableFrom(output);
+	}
+
+	@Override
+	public JCORowMapping<Map> rowMapping(Record record, Class<?> output, Set<String> columns) {
+		final int[] indexes = columnIndexes(record, columns);
+		final JCORowMap.Schema schema = new JCORowMap.Schema(columnNames(record, indexes));
+		return new JCOValueRowMapping<Map>() {
+			@Override
+			public void mapping(Record record, Map map) {
+				Object[] values = new Object[indexes.length];
+				for (int i = 0; i < indexes.length; i++) {
+					values[i] = trim(record.getValue(indexes[i]));
+				}
+				((JCORowMap) map).init(schema, values);
+			}
+
+			@Override
+			public void mapping(Object[] values, Map map) {
+				Object[] row = new Object[indexes.length];
+				for (int i = 0; i < indexes.length; i++) {
+					row[i] = trim(values[indexes[i]]);
+				}
+				((JCORowMap) map).init(schema, row);
+			}
+
+			@Override
+			public boolean clear(Map map) {
+				map.clear();
+				return true;
+			}
+		};
+	}
+}
@@ -0,0 +1,29 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+
+/**
+ * Row mapping resolved for the columns of one table.
+ *
+ * @see JCOTableMapper
+ * @author Kwanil
+ */
+public interface JCORowMapping<T> {
+
+	/**
+	 * @param record the table positioned on the current row
+	 * @param target instance to fill
+	 */
+	void mapping(JCO.Record record, T target);
+
+	/**
+	 * Reset what this mapping fills, so the target can be filled again with the next row.
+	 * The default does not reset the target, then every row is mapped to a new instance.
+	 *
+	 * @param target instance filled with the previous row
+	 * @return true if the target is reset
+	 */
+	default boolean clear(T target) {
+		return false;
+	}
+}
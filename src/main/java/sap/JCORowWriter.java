@@ -0,0 +1,18 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+
+/**
+ * Row writer resolved for the columns of one input table.
+ *
+ * @see JCOTableInputMapper
+ * @author Kwanil
+ */
+public interface JCORowWriter<T> {
+
+	/**
+	 * @param record the table positioned on the current row
+	 * @param source input object
+	 */
+	void input(JCO.Record record, T source);
+}
@@ -0,0 +1,21 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+
+/**
+ * {@link JCOMapper} that can fill a whole input table.
+ * The columns of the table are resolved once, and every row is written by column index.
+ * The null values and the keys that are not a column of the table are not written.
+ *
+ * @see JCOTemplate#mappingInputTable(com.sap.mw.jco.JCO.Table, java.util.List)
+ * @author Kwanil
+ */
+public interface JCOTableInputMapper<T> extends JCOMapper<T> {
+
+	/**
+	 * @param record the input table (only the column metadata is used)
+	 * @param input class of the input objects
+	 * @return row writer resolved for the columns of the record
+	 */
+	JCORowWriter<T> rowWriter(JCO.Record record, Class<?> input);
+}
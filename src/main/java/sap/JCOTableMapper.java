@@ -0,0 +1,35 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+
+import java.util.Set;
+
+/**
+ * {@link JCOMapper} that can map a whole table.
+ * The columns of the table are resolved to the target once, and every row is read by column index.
+ *
+ * @see JCOTemplate#mappingList(com.sap.mw.jco.JCO.Table, Class)
+ * @author Kwanil
+ */
+public interface JCOTableMapper<T> extends JCOMapper<T> {
+
+	/**
+	 * @param record the first row of the table (only the column metadata is used)
+	 * @param output output class
+	 * @return row mapping resolved for the columns of the record
+	 */
+	JCORowMapping<T> rowMapping(JCO.Record record, Class<?> output);
+
+	/**
+	 * The mapper may skip the other columns, the default maps the columns as {@link #rowMapping(JCO.Record, Class)}.
+	 *
+	 * @param record the first row of the table (only the column metadata is used)
+	 * @param output output class
+	 * @param columns the projected columns
+	 * @return row mapping resolved for the projected columns of the record
+	 * @see JCOInput#project(String, String...)
+	 */
+	default JCORowMapping<T> rowMapping(JCO.Record record, Class<?> output, Set<String> columns) {
+		return rowMapping(record, output);
+	}
+}
@@ -0,0 +1,194 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import com.sap.mw.jco.JCO.FieldIterator;
+import com.sap.mw.jco.JCO.Table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reader of the rows of a {@link Table} into output objects.
+ * If the mapper is a {@link JCOTableMapper}, the columns are resolved from the first row once
+ * and every row is read by column index. Only the projected columns are read if a projection is given.
+ *
+ * @see JCOTemplate#mappingList(Table, Class)
+ * @author Kwanil
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+final class JCOTableReader<T> {
+	private final Table table;
+	private final Class<T> outputClass;
+	private final JCOMapper mapper;
+	private final int numRows;
+	private final Set<String> columns;
+	private JCORowMapping rowMapping;
+
+	/**
+	 * @param columns the projected columns, null to read all the columns
+	 */
+	JCOTableReader(Table table, Class<T> outputClass, JCOMapper mapper, Set<String> columns) {
+		this.table = table;
+		this.outputClass = outputClass;
+		this.mapper = mapper;
+		this.columns = columns;
+		this.numRows = table.getNumRows();
+		if (numRows > 0 && mapper instanceof JCOTableMapper) {
+			table.setRow(0);
+			this.rowMapping = columns == null ? ((JCOTableMapper) mapper).rowMapping(table, outputClass)
+					: ((JCOTableMapper) mapper).rowMapping(table, outputClass, columns);
+		}
+	}
+
+	int size() {
+		return numRows;
+	}
+
+	T read(int row) throws ReflectiveOperationException {
+		T instance = outputClass.newInstance();
+		read(row, instance);
+		return instance;
+	}
+
+	/**
+	 * Read the row into the instance of the previous row, reset by the row mapping before it is filled.
+	 *
+	 * @param row row index
+	 * @param previous instance of the previous row, null for the first row
+	 * @return previous filled with the row, or a new instance if the row mapping can not reset it
+	 */
+	T reuse(int row, T previous) throws ReflectiveOperationException {
+		if (previous == null || rowMapping == null || !rowMapping.clear(previous)) {
+			return read(row);
+		}
+		read(row, previous);
+		return previous;
+	}
+
+	void read(int row, T instance) {
+		table.setRow(row);
+		if (rowMapping != null) {
+			rowMapping.mapping(table, instance);
+			return;
+		}
+		for (FieldIterator fields = table.fields(); fields.hasMoreElements();) {
+			JCO.Field field = fields.nextField();
+			if (columns == null || columns.contains(field.getName())) {
+				mapper.mapping(field, instance);
+			}
+		}
+	}
+
+	/**
+	 * @return true if the rows can be copied out of the table and mapped in parallel
+	 */
+	boolean isParallelizable() {
+		return rowMapping instanceof JCOValueRowMapping;
+	}
+
+	/**
+	 * The values of the rows are copied out of the table on the caller thread, because a JCO table has one cursor
+	 * and is not thread-safe, so the rows of the table can not be read by the tasks.
+	 * The character columns are copied with {@link Table#getString(int)} and the others with {@link Table#getValue(int)},
+	 * the values the row mapping reads from the table, so a row is mapped the same as {@link #read(int)} maps it.
+	 * Then the row ranges are mapped concurrently on the pool, and the order of the rows is preserved.
+	 * The copy of a row is released once the row is mapped.
+	 *
+	 * @param pool fork/join pool
+	 * @param threshold max number of the rows mapped by one task
+	 * @return mapped rows
+	 */
+	List<T> readParallel(ForkJoinPool pool, int threshold) throws ReflectiveOperationException {
+		int fieldCount = table.getFieldCount();
+		int[] copied = copiedColumns(fieldCount);
+		boolean[] character = new boolean[copied.length];
+		for (int j = 0; j < copied.length; j++) {
+			character[j] = JCOValues.isCharacter(table.getType(copied[j]));
+		}
+		Object[][] rows = new Object[numRows][];
+		for (int i = 0; i < numRows; i++) {
+			table.setRow(i);
+			Object[] values = new Object[fieldCount];
+			for (int j = 0; j < copied.length; j++) {
+				values[copied[j]] = character[j] ? table.getString(copied[j]) : table.getValue(copied[j]);
+			}
+			rows[i] = values;
+		}
+		Object[] results = new Object[numRows];
+		try {
+			pool.invoke(new MappingTask(rows, results, 0, numRows, Math.max(threshold, 1)));
+		} catch (MappingException e) {
+			throw e.getCause();
+		}
+		return new ArrayList<T>((List<T>) Arrays.asList(results));
+	}
+
+	/**
+	 * @return the indexes of the projected columns, the other values of a copied row are null
+	 */
+	private int[] copiedColumns(int fieldCount) {
+		int[] copied = new int[fieldCount];
+		int size = 0;
+		for (int i = 0; i < fieldCount; i++) {
+			if (columns == null || columns.contains(table.getName(i))) {
+				copied[size++] = i;
+			}
+		}
+		return Arrays.copyOf(copied, size);
+	}
+
+	private final class MappingTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Object[][] rows;
+		private final Object[] results;
+		private final int from;
+		private final int to;
+		private final int threshold;
+
+		MappingTask(Object[][] rows, Object[] results, int from, int to, int threshold) {
+			this.rows = rows;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				JCOValueRowMapping valueRowMapping = (JCOValueRowMapping) rowMapping;
+				for (int i = from; i < to; i++) {
+					try {
+						T instance = outputClass.newInstance();
+						valueRowMapping.mapping(rows[i], instance);
+						rows[i] = null;
+						results[i] = instance;
+					} catch (ReflectiveOperationException e) {
+						throw new MappingException(e);
+					}
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new MappingTask(rows, results, from, middle, threshold), new MappingTask(rows, results, middle, to, threshold));
+		}
+	}
+
+	private static final class MappingException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		MappingException(ReflectiveOperationException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized ReflectiveOperationException getCause() {
+			return (ReflectiveOperationException) super.getCause();
+		}
+	}
+}
@@ -2,6 +2,8 @@ package sap;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +21,38 @@ public class JCOTables {
 		this.tables.put(tableName, list);
 	}
 	
+	/**
+	 * Append the rows of the merged tables to the tables of this, the other tables are kept as the first added ones
+	 *
+	 * @param other tables of the next chunk
+	 * @param input chunked input
+	 * @see JCOInput#chunk(String, int, String...)
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	void addAll(JCOTables other, JCOInput input) {
+		for (Map.Entry<String, List<?>> entry : other.tables.entrySet()) {
+			List list = (List) this.tables.get(entry.getKey());
+			if (list == null) {
+				list = new ArrayList();
+				this.tables.put(entry.getKey(), list);
+			} else if (!input.isMerged(entry.getKey())) {
+				continue;
+			}
+			list.addAll(entry.getValue());
+		}
+	}
+
+	/**
+	 * @return tables of unmodifiable views of the lists, the rows are not copied
+	 */
+	JCOTables unmodifiable() {
+		JCOTables unmodifiable = new JCOTables();
+		for (Map.Entry<String, List<?>> entry : tables.entrySet()) {
+			unmodifiable.put(entry.getKey(), entry.getValue() == null ? null : Collections.unmodifiableList(entry.getValue()));
+		}
+		return unmodifiable;
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T> List<T> table(String name) {
 		return (List<T>) this.tables.get(name);
@@ -1,25 +1,36 @@
 package sap;
 
+import com.sap.mw.jco.IRepository;
 import com.sap.mw.jco.JCO.FieldIterator;
 import com.sap.mw.jco.JCO.ParameterList;
+import com.sap.mw.jco.JCO.Pool;
 import com.sap.mw.jco.JCO.Record;
 import com.sap.mw.jco.JCO.Table;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.core.io.ClassPathResource;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class that make JCOClient calls and Object Relation Mapping This class create
  * a {@link JCOConnector} and map the Object through {@link JCOMapper}. When
  * JCOTemplate create a JCOConnector, JCOTemplate load the properties you set in
  * {@link #setResourcePath(String)}. The default of {@link JCOMapper} are
- * {@link JCOMapMapper} and {@link JCOAnnotationMapper}
+ * {@link JCORowMapMapper}, {@link JCOMapMapper} and {@link JCOAnnotationMapper}, and the mappers generated
+ * by {@link JCOMapperProcessor} are selected just ahead of {@link JCOAnnotationMapper}
  *
  * @author Kwanil
  *
@@ -36,31 +47,255 @@ public class JCOTemplate {
 	private String successValue = "S";
 	private boolean skipValidation = false;
 
-	private String poolName = String.valueOf(Calendar.getInstance().getTimeInMillis());
+	// derived from the connection properties if not set, so the templates of a system share one pool
+	private String poolName;
+	private JCOPoolConfig poolConfig;
 
-	@SuppressWarnings("rawtypes")
-	private List<JCOMapper> mappers = new ArrayList<JCOMapper>();
+	// called instead of the client pool of the properties if set
+	private JCOBackend backend;
+
+	private volatile JCOMetrics metrics = JCOMetrics.NONE;
+
+	// results of the read-only functions, null to call SAP every time
+	private JCOResultCache resultCache;
+
+	// use the mappers generated by JCOMapperProcessor ahead of JCOAnnotationMapper
+	private volatile boolean generatedMappers = true;
+
+	// loaded once and shared by the calls until invalidate()
+	private final Object lock = new Object();
+	private volatile Properties properties;
+	private volatile Connection connection;
+	private JCOFunctionTemplateCache functionTemplateCache = new JCOFunctionTemplateCache();
+	private List<String> preloadFunctions = new ArrayList<String>();
+
+	// tables of this size or more are mapped in parallel, 0 maps every table sequentially
+	private int parallelMappingThreshold = 0;
+	private ForkJoinPool mappingPool = ForkJoinPool.commonPool();
+
+	// runs the chunks of a chunked input concurrently, null runs them one by one
+	private ExecutorService chunkExecutor;
+
+	// resolved into the bindings of JCOAnnotationMapper
+	private volatile JCOConverters converters = new JCOConverters();
+
+	// mappers created by the template, only these are set to use the converters of the template
+	private final Set<JCOMapper<?>> ownMappers = Collections.newSetFromMap(new IdentityHashMap<JCOMapper<?>, Boolean>());
+
+	// replaced as a whole when the mappers change, so a selection is never cached for the replaced mappers
+	private volatile Mappers mappers;
 	{
-		mappers.add(new JCOMapMapper());
-		mappers.add(new JCOAnnotationMapper());
+		JCOAnnotationMapper annotationMapper = new JCOAnnotationMapper(converters);
+		ownMappers.add(annotationMapper);
+		@SuppressWarnings("rawtypes")
+		List<JCOMapper> defaults = new ArrayList<JCOMapper>();
+		defaults.add(new JCORowMapMapper());
+		defaults.add(new JCOMapMapper());
+		defaults.add(new JCOGeneratedMappers.Lookup());
+		defaults.add(annotationMapper);
+		mappers = new Mappers(defaults, converters, generatedMappers);
+		for (JCOMapper<?> mapper : ServiceLoader.load(JCOMapper.class)) {
+			ownMappers.add(mapper);
+			addMapper(mapper);
+		}
+		applyConverters();
+	}
+
+	/**
+	 * Replace the mappers, including the ones loaded by {@link ServiceLoader}.
+	 * The given mappers are not modified, a {@link JCOAnnotationMapper} of them keeps its own converters
+	 * instead of {@link #getConverters()}, and the mappers generated by {@link JCOMapperProcessor} are selected just ahead of the first of them.
+	 *
+	 * @param mappers mappers selected in order
+	 */
+	@SuppressWarnings("rawtypes")
+	public synchronized void setMappers(List<JCOMapper> mappers) {
+		List<JCOMapper> replaced = new ArrayList<JCOMapper>(mappers);
+		int index = 0;
+		while (index < replaced.size() && !(replaced.get(index) instanceof JCOAnnotationMapper)) {
+			index++;
+		}
+		replaced.add(index, new JCOGeneratedMappers.Lookup());
+		this.mappers = new Mappers(replaced, converters, generatedMappers);
+	}
+
+	/**
+	 * Add the mapper by its {@link org.springframework.core.Ordered order} or {@link org.springframework.core.annotation.Order @Order},
+	 * ahead of the mappers of the same or a lower precedence. A mapper without order has the lowest precedence,
+	 * as {@link JCOAnnotationMapper}, so it is still selected ahead of it.
+	 * The mappers listed in {@code META-INF/services/sap.JCOMapper} are added when the template is created.
+	 * The mapper is not modified, a {@link JCOAnnotationMapper} keeps its own converters.
+	 *
+	 * @param mapper mapper to add
+	 */
+	@SuppressWarnings("rawtypes")
+	public synchronized void addMapper(JCOMapper<?> mapper) {
+		Objects.requireNonNull(mapper, "mapper must not be null");
+		List<JCOMapper> added = new ArrayList<JCOMapper>(mappers.list);
+		int index = 0;
+		while (index < added.size() && AnnotationAwareOrderComparator.INSTANCE.compare(added.get(index), mapper) < 0) {
+			index++;
+		}
+		added.add(index, mapper);
+		this.mappers = new Mappers(added, converters, generatedMappers);
+	}
+
+	/**
+	 * @return registry of the converters used by the {@link JCOAnnotationMapper}
+	 */
+	public JCOConverters getConverters() {
+		return converters;
+	}
+
+	public synchronized void setConverters(JCOConverters converters) {
+		this.converters = Objects.requireNonNull(converters);
+		applyConverters();
+	}
+
+	/**
+	 * @param targetType type of the field
+	 * @param converter converter of the columns of every JCO type
+	 * @see JCOConverters#register(Class, JCOConverter)
+	 */
+	public <T> void registerConverter(Class<T> targetType, JCOConverter<? extends T> converter) {
+		converters.register(targetType, converter);
+	}
+
+	/**
+	 * @param jcoType JCO type of the column
+	 * @param targetType type of the field
+	 * @param converter converter of the columns of the JCO type
+	 * @see JCOConverters#register(int, Class, JCOConverter)
+	 */
+	public <T> void registerConverter(int jcoType, Class<T> targetType, JCOConverter<? extends T> converter) {
+		converters.register(jcoType, targetType, converter);
+	}
+
+	/**
+	 * Only the {@link JCOAnnotationMapper}s created by the template are set, the ones of the caller are left as they are.
+	 */
+	@SuppressWarnings("rawtypes")
+	private void applyConverters() {
+		for (JCOMapper mapper : mappers.list) {
+			if (mapper instanceof JCOAnnotationMapper && ownMappers.contains(mapper)) {
+				((JCOAnnotationMapper) mapper).setConverters(converters);
+			}
+		}
+	}
+
+	/**
+	 * @param generatedMappers false to ignore the mappers generated by {@link JCOMapperProcessor}
+	 */
+	public synchronized void setGeneratedMappers(boolean generatedMappers) {
+		this.generatedMappers = generatedMappers;
+	}
+
+	/**
+	 * @param functionTemplateCache cache of the function metadata, null to ask the repository on every call
+	 */
+	public void setFunctionTemplateCache(JCOFunctionTemplateCache functionTemplateCache) {
+		this.functionTemplateCache = functionTemplateCache;
+	}
+
+	/**
+	 * @param preloadFunctions functions whose metadata is fetched when the repository is created
+	 */
+	public void setPreloadFunctions(List<String> preloadFunctions) {
+		this.preloadFunctions = new ArrayList<String>(Objects.requireNonNull(preloadFunctions));
+	}
+
+	/**
+	 * Map the tables of the rows or more in parallel on the mapping pool, the order of the rows is preserved.
+	 * The mapper must resolve a {@link JCOValueRowMapping}, as {@link JCOMapMapper}, {@link JCOAnnotationMapper}
+	 * and the generated mappers do. The default is 0, mapping every table sequentially.
+	 *
+	 * @param parallelMappingThreshold min number of the rows mapped in parallel, 0 to disable
+	 */
+	public void setParallelMappingThreshold(int parallelMappingThreshold) {
+		this.parallelMappingThreshold = parallelMappingThreshold;
+	}
+
+	/**
+	 * @param mappingPool pool of the parallel mapping, the default is {@link ForkJoinPool#commonPool()}
+	 */
+	public void setMappingPool(ForkJoinPool mappingPool) {
+		this.mappingPool = Objects.requireNonNull(mappingPool);
+	}
+
+	/**
+	 * @param chunkExecutor executor running the chunks of a {@link JCOInput#chunk(String, int) chunked input}
+	 *            concurrently, null (default) to run them one by one. Its size bounds the chunks in flight.
+	 */
+	public void setChunkExecutor(ExecutorService chunkExecutor) {
+		this.chunkExecutor = chunkExecutor;
+	}
+
+	/**
+	 * Call the backend instead of the client pool of the properties, e.g. {@link JCOFakeBackend} for the offline tests.
+	 * The properties are not loaded while a backend is set.
+	 *
+	 * @param backend backend of the calls, null (default) to use the client pool
+	 */
+	public void setBackend(JCOBackend backend) {
+		invalidate();
+		this.backend = backend;
 	}
 
-	public void setMappers(@SuppressWarnings("rawtypes") List<JCOMapper> mappers) {
-		this.mappers = mappers;
+	/**
+	 * @param metrics listener of the timings, rows and errors of the calls, the default is {@link JCOMetrics#NONE}
+	 */
+	public void setMetrics(JCOMetrics metrics) {
+		this.metrics = Objects.requireNonNull(metrics);
+	}
+
+	/**
+	 * The calls of a cached function share the mapped rows, so their tables are unmodifiable lists
+	 * and the rows must not be modified.
+	 *
+	 * @param resultCache cache of the table calls of the functions registered to it, null (default) to disable
+	 */
+	public void setResultCache(JCOResultCache resultCache) {
+		this.resultCache = resultCache;
 	}
 
 	public void setRepositoryName(String repositoryName) {
 		this.repositoryName = repositoryName;
+		invalidate();
 	}
 
 	public void setResourcePath(String resourcePath) {
 		this.resourcePath = resourcePath;
+		invalidate();
 	}
 
 	public void setPoolName(String poolName) {
+		invalidate();
 		this.poolName = poolName;
 	}
 
+	/**
+	 * The templates sharing a pool name must set the same configuration, the first call fails otherwise.
+	 *
+	 * @param poolConfig pool configuration, null (default) to read it from the properties
+	 * @see JCOPoolConfig#of(Properties)
+	 */
+	public void setPoolConfig(JCOPoolConfig poolConfig) {
+		invalidate();
+		this.poolConfig = poolConfig;
+	}
+
+	/**
+	 * @return utilization of the client pool, null if the pool is not created yet
+	 */
+	public JCOPoolStatus getPoolStatus() {
+		Connection connection = this.connection;
+		if (connection == null) {
+			return null;
+		}
+		Pool pool = JCOConnector.getPool(connection.poolName);
+		return pool == null ? null : new JCOPoolStatus(connection.poolName, pool);
+	}
+
 	public void setSuccessKey(String successKey) {
 		this.successKey = successKey;
 	}
@@ -73,6 +308,137 @@ public class JCOTemplate {
 		this.skipValidation = skipValidation;
 	}
 
+	/**
+	 * Drop the loaded properties and the repository, and release the client pool.
+	 * The pool is removed when no other template shares it.
+	 * They are created again on the next call, so changed credentials or hosts are applied.
+	 */
+	public void invalidate() {
+		synchronized (lock) {
+			if (connection != null) {
+				JCOConnector.releaseClientPool(connection.poolName);
+			}
+			this.connection = null;
+			this.properties = null;
+			if (functionTemplateCache != null) {
+				functionTemplateCache.invalidate();
+			}
+		}
+	}
+
+	/**
+	 * {@link #invalidate()} and load the properties and the repository again.
+	 *
+	 * @throws IOException
+	 */
+	public void refresh() throws IOException {
+		synchronized (lock) {
+			invalidate();
+			getConnection();
+		}
+	}
+
+	Properties getProperties() throws IOException {
+		Properties properties = this.properties;
+		if (properties == null) {
+			synchronized (lock) {
+				properties = this.properties;
+				if (properties == null) {
+					properties = load(resourcePath);
+					this.properties = properties;
+				}
+			}
+		}
+		return properties;
+	}
+
+	IRepository getRepository() throws IOException {
+		JCOBackend backend = this.backend;
+		return backend != null ? backend.getRepository() : getConnection().repository;
+	}
+
+	private Connection getConnection() throws IOException {
+		Connection connection = this.connection;
+		if (connection == null) {
+			synchronized (lock) {
+				connection = this.connection;
+				if (connection == null) {
+					Properties properties = getProperties();
+					String poolName = this.poolName != null ? this.poolName : poolName(properties);
+					JCOPoolConfig poolConfig = JCOConnector.acquireClientPool(properties, poolName, requestedPoolConfig());
+					IRepository repository;
+					try {
+						repository = JCOConnector.createRepository(repositoryName, poolName);
+						if (functionTemplateCache != null) {
+							functionTemplateCache.preload(repository, preloadFunctions);
+						}
+					} catch (RuntimeException e) {
+						JCOConnector.releaseClientPool(poolName);
+						throw e;
+					}
+					connection = new Connection(repository, poolName, poolConfig);
+					this.connection = connection;
+				}
+			}
+		}
+		return connection;
+	}
+
+	/**
+	 * @return the configuration of the pool in use, the one the pool was added with
+	 * @throws IOException
+	 */
+	JCOPoolConfig getEffectivePoolConfig() throws IOException {
+		return backend != null ? requestedPoolConfig() : getConnection().poolConfig;
+	}
+
+	/**
+	 * @return key of the client pool of the calls, the backend if set
+	 * @throws IOException
+	 */
+	Object getPoolKey() throws IOException {
+		JCOBackend backend = this.backend;
+		return backend != null ? backend : getConnection().poolName;
+	}
+
+	private JCOPoolConfig requestedPoolConfig() throws IOException {
+		if (poolConfig != null) {
+			return poolConfig;
+		}
+		return backend != null ? new JCOPoolConfig() : JCOPoolConfig.of(getProperties());
+	}
+
+	/**
+	 * The name ends with a fingerprint of the password, so changed credentials get a new pool on {@link #refresh()}
+	 * and the password is not exposed by the name.
+	 */
+	static String poolName(Properties properties) {
+		String host = StringUtils.defaultIfEmpty(properties.getProperty("jco.client.ashost"), properties.getProperty("jco.client.mshost"));
+		return StringUtils.join(new Object[] { "JCO", properties.getProperty("jco.client.client"), properties.getProperty("jco.client.user"), host,
+				properties.getProperty("jco.client.sysnr"), properties.getProperty("jco.client.group"),
+				fingerprint(properties.getProperty("jco.client.passwd")) }, '_');
+	}
+
+	/**
+	 * @return hex of the first 8 bytes of the SHA-256 of the password, null if the password is null
+	 */
+	private static String fingerprint(String password) {
+		if (password == null) {
+			return null;
+		}
+		byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		StringBuilder hex = new StringBuilder();
+		for (int i = 0; i < 8; i++) {
+			hex.append(String.format("%02x", digest[i]));
+		}
+		return hex.toString();
+	}
+
 	Properties load(String propName) throws IOException {
 		ClassPathResource resource = new ClassPathResource(propName);
 		if (!resource.exists()) {
@@ -97,11 +463,7 @@ public class JCOTemplate {
 	public <T> List<T> executeTable(JCOInput input, Class<T> outputClass) throws IOException, ReflectiveOperationException {
 		Objects.requireNonNull(input);
 		Objects.requireNonNull(outputClass);
-		LinkedList<String> tableNames = new LinkedList<>(input.getTableNames());
-		if(tableNames.isEmpty() || tableNames.getFirst() == null) {
-			throw new IllegalArgumentException("tableName must not be empty");
-		}
-		return executeTables(input, outputClass).table(tableNames.getFirst());
+		return executeTables(input, outputClass).table(firstTableName(input));
 	}
 
 	/**
@@ -137,32 +499,99 @@ public class JCOTemplate {
 	 * @throws IOException
 	 * @throws ReflectiveOperationException
 	 */
-	public JCOTables executeTables(JCOInput input, JCOTableMappingClass mappingClass) throws IOException, ReflectiveOperationException {
+	public JCOTables executeTables(JCOInput input, final JCOTableMappingClass mappingClass) throws IOException, ReflectiveOperationException {
 		Objects.requireNonNull(input);
 		Objects.requireNonNull(mappingClass);
+		final JCOInput resolved = input.resolvePushdowns(mappingClass.getMappingInfo());
+		JCOResultCache resultCache = this.resultCache;
+		if (resultCache != null && resultCache.isCached(resolved.getFunctionName())) {
+			return resultCache.get(getPoolKey(), resolved, mappingClass, new Callable<JCOTables>() {
+				@Override
+				public JCOTables call() throws Exception {
+					return callTables(resolved, mappingClass);
+				}
+			});
+		}
+		return callTables(resolved, mappingClass);
+	}
+
+	private JCOTables callTables(JCOInput input, JCOTableMappingClass mappingClass) throws IOException, ReflectiveOperationException {
+		List<JCOInput> chunks = input.chunks();
+		if (chunks.size() > 1) {
+			return executeChunks(chunks, mappingClass);
+		}
 		JCOConnector connector = null;
 		try {
-			connector = createConnector();
-			mappingJCOInput(connector, input);
 			Collection<String> tableNames = CollectionUtils.union(mappingClass.getMappingInfo().keySet(), input.getTableNames());
 			if(tableNames.isEmpty()) {
 				throw new IllegalArgumentException("tableName must not be empty");
 			}
-			JCOResult jcoResult = connector.executeTable(input.getFunctionName(), tableNames);
-			if (!isValid(jcoResult.getOutput())) {
-				throw new IllegalStateException("Fail to result state : " + jcoResult);
-			}
+			connector = createConnector(input.getFunctionName());
+			JCOResult jcoResult = executeTable(connector, input, tableNames);
 			JCOTables result = new JCOTables();
 			Map<String, Class<?>> mappingInfo = mappingClass.getMappingInfo();
-			for (String tableName : tableNames) {
-				result.put(tableName, mappingList(jcoResult.getTable(tableName), mappingInfo.get(tableName)));
+			long start = System.nanoTime();
+			try {
+				for (String tableName : tableNames) {
+					Table table = jcoResult.getTable(tableName);
+					result.put(tableName, mappingList(table, mappingInfo.get(tableName), input.getProjection(tableName)));
+					recordTable(input.getFunctionName(), tableName, table);
+				}
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				metrics.error(input.getFunctionName(), JCOMetrics.Phase.MAPPING, e);
+				throw e;
 			}
+			metrics.record(input.getFunctionName(), JCOMetrics.Phase.MAPPING, System.nanoTime() - start);
 			return result;
 		} finally {
 			releaseConnection(connector);
 		}
 	}
 
+	private JCOTables executeChunks(List<JCOInput> chunks, final JCOTableMappingClass mappingClass) throws IOException, ReflectiveOperationException {
+		JCOTables result = new JCOTables();
+		if (chunkExecutor == null) {
+			for (JCOInput chunk : chunks) {
+				result.addAll(callTables(chunk, mappingClass), chunk);
+			}
+			return result;
+		}
+		List<Future<JCOTables>> futures = new ArrayList<Future<JCOTables>>(chunks.size());
+		for (final JCOInput chunk : chunks) {
+			futures.add(chunkExecutor.submit(new Callable<JCOTables>() {
+				@Override
+				public JCOTables call() throws Exception {
+					return callTables(chunk, mappingClass);
+				}
+			}));
+		}
+		try {
+			for (Future<JCOTables> future : futures) {
+				result.addAll(future.get(), chunks.get(0));
+			}
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the chunks", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof ReflectiveOperationException) {
+				throw (ReflectiveOperationException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Fail to execute the chunk", cause);
+		} finally {
+			for (Future<JCOTables> future : futures) {
+				future.cancel(false);
+			}
+		}
+	}
+
 	/**
 	 * Call JCOClient and object mapping
 	 *
@@ -177,23 +606,253 @@ public class JCOTemplate {
 	public <T> T executeOutput(JCOInput input, Class<T> outputClass) throws IOException, ReflectiveOperationException {
 		Objects.requireNonNull(input);
 		Objects.requireNonNull(outputClass);
+		input = input.resolvePushdowns(Collections.<String, Class<?>> emptyMap());
 		JCOConnector connector = null;
 		try {
-			connector = createConnector();
-			mappingJCOInput(connector, input);
-			JCOResult jcoResult = connector.execute(input.getFunctionName());
-			if (!isValid(jcoResult.getOutput())) {
-				throw new IllegalStateException("Fail to result state : " + jcoResult);
+			connector = createConnector(input.getFunctionName());
+			mappingInput(connector, input);
+			JCOResult jcoResult = validate(input.getFunctionName(), connector.execute(input.getFunctionName()));
+			long start = System.nanoTime();
+			try {
+				T output = mappingObject(jcoResult.getOutput(), outputClass);
+				metrics.record(input.getFunctionName(), JCOMetrics.Phase.MAPPING, System.nanoTime() - start);
+				return output;
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				metrics.error(input.getFunctionName(), JCOMetrics.Phase.MAPPING, e);
+				throw e;
+			}
+		} finally {
+			releaseConnection(connector);
+		}
+	}
+
+	/**
+	 * Call JCOClient and map the rows lazily while the stream is consumed.
+	 * The rows are not collected in a list, and the client is released when the stream is closed,
+	 * so the stream must be closed (e.g. try-with-resources). The mapping time of the consumed rows is recorded on close.
+	 *
+	 * @param input
+	 *            {@link JCOInput}
+	 * @param outputClass
+	 *            {@link Map} or Value Objects
+	 * @return Stream (mapped {@link Map} or Value Objects) of the first table
+	 * @throws IOException
+	 */
+	public <T> Stream<T> streamTable(JCOInput input, Class<T> outputClass) throws IOException {
+		Objects.requireNonNull(input);
+		Objects.requireNonNull(outputClass);
+		final String tableName = firstTableName(input);
+		input = input.resolvePushdowns(Collections.<String, Class<?>> singletonMap(tableName, outputClass));
+		final JCOConnector connector = createConnector(input.getFunctionName());
+		try {
+			JCOResult jcoResult = executeTable(connector, input, Collections.singletonList(tableName));
+			Table table = jcoResult.getTable(tableName);
+			recordTable(input.getFunctionName(), tableName, table);
+			if (table == null) {
+				return Stream.<T>empty().onClose(new Runnable() {
+					@Override
+					public void run() {
+						releaseConnection(connector);
+					}
+				});
+			}
+			return stream(input.getFunctionName(), tableReader(table, outputClass, input.getProjection(tableName)), connector);
+		} catch (RuntimeException e) {
+			releaseConnection(connector);
+			throw e;
+		}
+	}
+
+	/**
+	 * Call JCOClient and pass every row of the first table to the consumer, without collecting the rows in a list.
+	 * One instance is reused for every row, and it is reset before it is filled, so a blank column does not keep
+	 * the value of the previous row. The consumer must not keep the row, copy it instead.
+	 * The rows are mapped to new instances if the mapper can not reset them.
+	 *
+	 * @param input
+	 *            {@link JCOInput}
+	 * @param outputClass
+	 *            {@link Map} or Value Objects
+	 * @param consumer
+	 *            consumer of the rows
+	 * @return number of the rows
+	 * @throws IOException
+	 * @throws ReflectiveOperationException
+	 */
+	public <T> int forEachRow(JCOInput input, Class<T> outputClass, Consumer<? super T> consumer) throws IOException, ReflectiveOperationException {
+		Objects.requireNonNull(input);
+		Objects.requireNonNull(outputClass);
+		Objects.requireNonNull(consumer);
+		String tableName = firstTableName(input);
+		input = input.resolvePushdowns(Collections.<String, Class<?>> singletonMap(tableName, outputClass));
+		JCOConnector connector = null;
+		try {
+			connector = createConnector(input.getFunctionName());
+			JCOResult jcoResult = executeTable(connector, input, Collections.singletonList(tableName));
+			Table table = jcoResult.getTable(tableName);
+			if (table == null) {
+				return 0;
 			}
-			return mappingObject(jcoResult.getOutput(), outputClass);
+			recordTable(input.getFunctionName(), tableName, table);
+			// only the mapping of the rows is timed, not the consumer
+			JCOMetrics metrics = this.metrics;
+			boolean timed = metrics != JCOMetrics.NONE;
+			long start = timed ? System.nanoTime() : 0;
+			JCOTableReader<T> reader;
+			try {
+				reader = tableReader(table, outputClass, input.getProjection(tableName));
+			} catch (RuntimeException e) {
+				metrics.error(input.getFunctionName(), JCOMetrics.Phase.MAPPING, e);
+				throw e;
+			}
+			long nanos = timed ? System.nanoTime() - start : 0;
+			T row = null;
+			for (int i = 0; i < reader.size(); i++) {
+				start = timed ? System.nanoTime() : 0;
+				try {
+					row = reader.reuse(i, row);
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					metrics.error(input.getFunctionName(), JCOMetrics.Phase.MAPPING, e);
+					throw e;
+				}
+				if (timed) {
+					nanos += System.nanoTime() - start;
+				}
+				consumer.accept(row);
+			}
+			metrics.record(input.getFunctionName(), JCOMetrics.Phase.MAPPING, nanos);
+			return reader.size();
 		} finally {
 			releaseConnection(connector);
 		}
 	}
 
-	private JCOConnector createConnector() throws IOException {
-		JCOConnector jcoConnector = JCOConnector.create(load(resourcePath), repositoryName, poolName);
-		return jcoConnector;
+	/**
+	 * The time of mapping the consumed rows is recorded as {@link JCOMetrics.Phase#MAPPING} when the stream is closed.
+	 */
+	private <T> Stream<T> stream(final String functionName, final JCOTableReader<T> reader, final JCOConnector connector) {
+		final JCOMetrics metrics = this.metrics;
+		final boolean timed = metrics != JCOMetrics.NONE;
+		final long[] nanos = new long[1];
+		Iterator<T> rows = new Iterator<T>() {
+			private int row = 0;
+
+			@Override
+			public boolean hasNext() {
+				return row < reader.size();
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				long start = timed ? System.nanoTime() : 0;
+				try {
+					T mapped = reader.read(row++);
+					if (timed) {
+						nanos[0] += System.nanoTime() - start;
+					}
+					return mapped;
+				} catch (ReflectiveOperationException e) {
+					IllegalStateException error = new IllegalStateException("Fail to map the row " + (row - 1), e);
+					metrics.error(functionName, JCOMetrics.Phase.MAPPING, error);
+					throw error;
+				} catch (RuntimeException e) {
+					metrics.error(functionName, JCOMetrics.Phase.MAPPING, e);
+					throw e;
+				}
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliterator(rows, reader.size(), Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(new Runnable() {
+					@Override
+					public void run() {
+						metrics.record(functionName, JCOMetrics.Phase.MAPPING, nanos[0]);
+						releaseConnection(connector);
+					}
+				});
+	}
+
+	private String firstTableName(JCOInput input) {
+		List<String> tableNames = input.getTableNames();
+		if(tableNames.isEmpty() || tableNames.get(0) == null) {
+			throw new IllegalArgumentException("tableName must not be empty");
+		}
+		return tableNames.get(0);
+	}
+
+	private JCOResult executeTable(JCOConnector connector, JCOInput input, Collection<String> tableNames) {
+		mappingInput(connector, input);
+		return validate(input.getFunctionName(), connector.executeTable(input.getFunctionName(), tableNames));
+	}
+
+	/**
+	 * A result of the failure state is recorded as an error of {@link JCOMetrics.Phase#EXECUTE}.
+	 */
+	private JCOResult validate(String functionName, JCOResult jcoResult) {
+		if (!isValid(jcoResult.getOutput())) {
+			IllegalStateException e = new IllegalStateException("Fail to result state : " + jcoResult);
+			metrics.error(functionName, JCOMetrics.Phase.EXECUTE, e);
+			throw e;
+		}
+		return jcoResult;
+	}
+
+	/**
+	 * The time to acquire the client, including the wait for the pool, is recorded as {@link JCOMetrics.Phase#CONNECT}.
+	 */
+	private JCOConnector createConnector(String functionName) throws IOException {
+		JCOMetrics metrics = this.metrics;
+		long start = System.nanoTime();
+		JCOConnector connector;
+		try {
+			JCOBackend backend = this.backend;
+			if (backend != null) {
+				connector = JCOConnector.create(backend, functionTemplateCache);
+			} else {
+				Connection connection = getConnection();
+				connector = JCOConnector.create(connection.repository, connection.poolName, functionTemplateCache);
+			}
+		} catch (IOException | RuntimeException e) {
+			metrics.error(functionName, JCOMetrics.Phase.CONNECT, e);
+			throw e;
+		}
+		metrics.record(functionName, JCOMetrics.Phase.CONNECT, System.nanoTime() - start);
+		connector.setMetrics(metrics);
+		return connector;
+	}
+
+	/**
+	 * The function is created before the time of {@link JCOMetrics.Phase#INPUT}, it is recorded as {@link JCOMetrics.Phase#METADATA}.
+	 */
+	private void mappingInput(JCOConnector connector, JCOInput input) {
+		connector.getFunction(input.getFunctionName());
+		long start = System.nanoTime();
+		try {
+			mappingJCOInput(connector, input);
+		} catch (RuntimeException e) {
+			metrics.error(input.getFunctionName(), JCOMetrics.Phase.INPUT, e);
+			throw e;
+		}
+		metrics.record(input.getFunctionName(), JCOMetrics.Phase.INPUT, System.nanoTime() - start);
+	}
+
+	/**
+	 * The bytes are counted only if a metrics listener is set.
+	 */
+	private void recordTable(String functionName, String tableName, Table table) {
+		JCOMetrics metrics = this.metrics;
+		if (table == null || metrics == JCOMetrics.NONE) {
+			return;
+		}
+		int rows = table.getNumRows();
+		int columns = table.getFieldCount();
+		long rowLength = 0;
+		for (int i = 0; i < columns; i++) {
+			rowLength += table.getLength(i);
+		}
+		metrics.table(functionName, tableName, rows, columns, rowLength * rows);
 	}
 
 	private void releaseConnection(JCOConnector connector) {
@@ -211,11 +870,63 @@ public class JCOTemplate {
 		Map<String, List<Object>> inputTables = input.getInputTables();
 		if(!inputTables.isEmpty()) {
 			for (Entry<String, List<Object>> entry : inputTables.entrySet()) {
-				Table table = connector.getTable(functionName, entry.getKey());
-				for (Object value : entry.getValue()) {
-					table.appendRow();
-					mappingInputObject(table, value);
-				}
+				mappingInputTable(connector.getTable(functionName, entry.getKey()), entry.getValue());
+			}
+		}
+		for (Entry<String, String[]> pushdown : input.getPushdowns().entrySet()) {
+			Set<String> columns = input.getProjectedColumns(pushdown.getKey());
+			if (columns == null) {
+				throw new IllegalArgumentException("Not found projection of the pushed down table : " + pushdown.getKey());
+			}
+			mappingPushdown(connector.getTable(functionName, pushdown.getValue()[0]), pushdown.getValue()[1], columns);
+		}
+	}
+
+	/**
+	 * Append a row of the field name for every projected column.
+	 */
+	void mappingPushdown(Table table, String fieldNameColumn, Set<String> columns) {
+		if (table == null) {
+			throw new IllegalArgumentException("Not found pushdown table");
+		}
+		int offset = table.getNumRows();
+		table.appendRows(columns.size());
+		int index = JCOValues.requireIndexOf(table, fieldNameColumn);
+		for (String column : columns) {
+			table.setRow(offset++);
+			table.setValue(column, index);
+		}
+	}
+
+	/**
+	 * The table is pre-sized for the rows, and the columns are resolved once per input class
+	 * if the mapper is a {@link JCOTableInputMapper}.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	void mappingInputTable(Table table, List<Object> rows) {
+		if (table == null || rows.isEmpty()) {
+			return;
+		}
+		int offset = table.getNumRows();
+		table.appendRows(rows.size());
+		Class<?> inputClass = null;
+		JCOMapper mapper = null;
+		JCORowWriter writer = null;
+		for (int i = 0; i < rows.size(); i++) {
+			Object row = rows.get(i);
+			if (row == null) {
+				continue;
+			}
+			table.setRow(offset + i);
+			if (row.getClass() != inputClass) {
+				inputClass = row.getClass();
+				mapper = selectMapper(inputClass);
+				writer = mapper instanceof JCOTableInputMapper ? ((JCOTableInputMapper) mapper).rowWriter(table, inputClass) : null;
+			}
+			if (writer != null) {
+				writer.input(table, row);
+			} else {
+				mapper.input(table, row);
 			}
 		}
 	}
@@ -236,25 +947,43 @@ public class JCOTemplate {
 	}
 
 	<T> List<T> mappingList(Table table, Class<T> outputClass) throws ReflectiveOperationException {
+		return mappingList(table, outputClass, null);
+	}
+
+	<T> List<T> mappingList(Table table, Class<T> outputClass, Set<String> columns) throws ReflectiveOperationException {
 		if (table == null || outputClass == null) {
 			return Collections.emptyList();
 		}
-		return mappingList(table, outputClass, selectMapper(outputClass));
+		return mappingList(tableReader(table, outputClass, columns));
 	}
 
-	@SuppressWarnings("rawtypes")
-	private <T> List<T> mappingList(Table table, Class<T> outputClass, JCOMapper jcoMapper)	throws ReflectiveOperationException {
-		List<T> list = new ArrayList<T>();
-		for (int i = 0; i < table.getNumRows(); i++) {
-			table.setRow(i);
-			list.add(mappingObject(table, outputClass, jcoMapper));
+	<T> List<T> mappingList(JCOTableReader<T> reader) throws ReflectiveOperationException {
+		int numRows = reader.size();
+		if (parallelMappingThreshold > 0 && numRows >= parallelMappingThreshold && reader.isParallelizable()) {
+			return reader.readParallel(mappingPool, Math.max(numRows / (mappingPool.getParallelism() * 4), 1));
+		}
+		List<T> list = new ArrayList<T>(numRows);
+		for (int i = 0; i < numRows; i++) {
+			list.add(reader.read(i));
 		}
 		return list;
 	}
 
+	@SuppressWarnings("unchecked")
+	<T> JCOTableReader<T> tableReader(Table table, Class<T> outputClass, Set<String> columns) {
+		return new JCOTableReader<T>(table, outputClass, selectMapper(outputClass), columns);
+	}
+
+	/**
+	 * A {@link JCOTableMapper} maps the record as a row, e.g. a {@link JCORowMap} gets the schema of the record.
+	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private <T> T mappingObject(Record record, Class<T> outputClass, JCOMapper jcoMapper) throws ReflectiveOperationException {
 		T instance = outputClass.newInstance();
+		if (jcoMapper instanceof JCOTableMapper) {
+			((JCOTableMapper) jcoMapper).rowMapping(record, outputClass).mapping(record, instance);
+			return instance;
+		}
 		for (FieldIterator fields = record.fields(); fields.hasMoreElements();) {
 			jcoMapper.mapping(fields.nextField(), instance);
 		}
@@ -263,12 +992,38 @@ public class JCOTemplate {
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	<T> JCOMapper selectMapper(Class<T> clazz) {
-		for (JCOMapper mapper : mappers) {
+		Mappers mappers = this.mappers;
+		if (mappers.converters != converters || mappers.converterVersion != mappers.converters.version()
+				|| mappers.generated != generatedMappers) {
+			mappers = refreshMappers();
+		}
+		JCOMapper selected = mappers.selected.get(clazz);
+		if (selected != null) {
+			return selected;
+		}
+		for (JCOMapper mapper : mappers.list) {
+			// the generated mappers do not know the registered converters, the classes using one are mapped by annotation
+			if (mapper instanceof JCOGeneratedMappers.Lookup && (!mappers.generated || mappers.converters.converts(clazz))) {
+				continue;
+			}
 			if (mapper.canRead(clazz)) {
-				return mapper;
+				JCOMapper previous = mappers.selected.putIfAbsent(clazz, mapper);
+				return previous != null ? previous : mapper;
 			}
 		}
-		throw new IllegalStateException("Not found Mapper!" + ToStringBuilder.reflectionToString(mappers));
+		throw new IllegalStateException("Not found Mapper!" + ToStringBuilder.reflectionToString(mappers.list));
+	}
+
+	/**
+	 * @return the mappers with an empty selection, for the current converters and generated mappers flag
+	 */
+	private synchronized Mappers refreshMappers() {
+		Mappers mappers = this.mappers;
+		if (mappers.converters != converters || mappers.converterVersion != converters.version() || mappers.generated != generatedMappers) {
+			mappers = new Mappers(mappers.list, converters, generatedMappers);
+			this.mappers = mappers;
+		}
+		return mappers;
 	}
 
 	boolean isValid(ParameterList output) {
@@ -282,4 +1037,37 @@ public class JCOTemplate {
 		}
 	}
 
+	/**
+	 * Mappers in order and the mapper selected for a class with them
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final class Mappers {
+		private final List<JCOMapper> list;
+		private final JCOConverters converters;
+		private final int converterVersion;
+		private final boolean generated;
+		private final ConcurrentMap<Class<?>, JCOMapper> selected = new ConcurrentHashMap<Class<?>, JCOMapper>();
+
+		Mappers(List<JCOMapper> list, JCOConverters converters, boolean generated) {
+			this.list = list;
+			this.converters = converters;
+			this.converterVersion = converters.version();
+			this.generated = generated;
+		}
+	}
+
+	/**
+	 * Repository and pool shared by the calls until {@link #invalidate()}
+	 */
+	private static final class Connection {
+		private final IRepository repository;
+		private final String poolName;
+		private final JCOPoolConfig poolConfig;
+
+		Connection(IRepository repository, String poolName, JCOPoolConfig poolConfig) {
+			this.repository = repository;
+			this.poolName = poolName;
+			this.poolConfig = poolConfig;
+		}
+	}
 }
@@ -27,7 +27,11 @@ public @interface JCOValue {
 	String value();
 	
 	/**
-	 * The format is mapped if the class of the jco value is {@link Date} and the field is {@link String}
+	 * The format is mapped if the class of the jco value is {@link Date} and the field is {@link String},
+	 * or parsed if the jco value is a String and the field is {@link Date}, {@link java.time.LocalDate},
+	 * {@link java.time.LocalDateTime} or {@link java.time.Instant}.
+	 * If empty, yyyyMMdd (yyyyMMddHHmmss for LocalDateTime and Instant) is used to format and to parse,
+	 * so a date formatted to a String field is parsed back. The SAP initial date 00000000 is mapped to null.
 	 * @return dateformat
 	 */
 	String dateFormat() default StringUtils.EMPTY;
@@ -0,0 +1,17 @@
+package sap;
+
+/**
+ * {@link JCORowMapping} that can also map a row copied out of the table.
+ * The copied rows do not share the cursor of the table, so they can be mapped in parallel.
+ *
+ * @see JCOTemplate#setParallelMappingThreshold(int)
+ * @author Kwanil
+ */
+public interface JCOValueRowMapping<T> extends JCORowMapping<T> {
+
+	/**
+	 * @param values the values of a row, indexed by column like {@link com.sap.mw.jco.JCO.Record#getValue(int)}
+	 * @param target instance to fill
+	 */
+	void mapping(Object[] values, T target);
+}
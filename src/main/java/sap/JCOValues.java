@@ -0,0 +1,241 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import com.sap.mw.jco.JCO.Record;
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Value conversions used by the mappers, and by the mappers generated with {@link JCOMapperProcessor}.
+ * The {@code toXxx} methods are the lenient conversions of the built-in converters,
+ * a blank value is converted to 0 for primitive types and null for the others.
+ *
+ * @author Kwanil
+ */
+public final class JCOValues {
+
+	private JCOValues() {
+	}
+
+	/**
+	 * @param record JCO record
+	 * @param name JCO key
+	 * @return the column index of the key, -1 if the record has no such column
+	 */
+	public static int indexOf(Record record, String name) {
+		for (int i = 0; i < record.getFieldCount(); i++) {
+			if (StringUtils.equals(record.getName(i), name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param record JCO record
+	 * @param name JCO key
+	 * @return the column index of the key
+	 * @throws IllegalArgumentException if the record has no such column
+	 */
+	public static int requireIndexOf(Record record, String name) {
+		int index = indexOf(record, name);
+		if (index < 0) {
+			throw new IllegalArgumentException("Not found column : " + name);
+		}
+		return index;
+	}
+
+	/**
+	 * @param jcoType JCO type
+	 * @return true if JCO reads the type as a number (int, bcd, float and numeric characters)
+	 */
+	public static boolean isNumeric(int jcoType) {
+		return jcoType == JCO.TYPE_INT || jcoType == JCO.TYPE_INT1 || jcoType == JCO.TYPE_INT2 || jcoType == JCO.TYPE_BCD
+				|| jcoType == JCO.TYPE_FLOAT || jcoType == JCO.TYPE_NUM;
+	}
+
+	/**
+	 * @param jcoType JCO type
+	 * @return true if the type is a character type
+	 */
+	public static boolean isCharacter(int jcoType) {
+		return jcoType == JCO.TYPE_CHAR || jcoType == JCO.TYPE_STRING;
+	}
+
+	/**
+	 * Write the value by JCO key with its type, a null value is not written.
+	 * An enum is written by name, and an Optional by its value.
+	 *
+	 * @param record JCO record
+	 * @param name JCO key
+	 * @param value value to write
+	 */
+	public static void setValue(Record record, String name, Object value) {
+		if (value instanceof Optional) {
+			value = ((Optional<?>) value).orElse(null);
+		}
+		if (value == null) {
+			return;
+		}
+		if (value instanceof String) {
+			record.setValue((String) value, name);
+		} else if (value instanceof Enum) {
+			record.setValue(((Enum<?>) value).name(), name);
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			record.setValue(((Number) value).intValue(), name);
+		} else if (value instanceof Long) {
+			record.setValue(((Long) value).longValue(), name);
+		} else if (value instanceof Double || value instanceof Float) {
+			record.setValue(((Number) value).doubleValue(), name);
+		} else {
+			record.setValue(value, name);
+		}
+	}
+
+	/**
+	 * Write the value by column index with its type, a null value is not written.
+	 * An enum is written by name, and an Optional by its value.
+	 *
+	 * @param record JCO record
+	 * @param index column index
+	 * @param value value to write
+	 */
+	public static void setValue(Record record, int index, Object value) {
+		if (value instanceof Optional) {
+			value = ((Optional<?>) value).orElse(null);
+		}
+		if (value == null) {
+			return;
+		}
+		if (value instanceof String) {
+			record.setValue((String) value, index);
+		} else if (value instanceof Enum) {
+			record.setValue(((Enum<?>) value).name(), index);
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			record.setValue(((Number) value).intValue(), index);
+		} else if (value instanceof Long) {
+			record.setValue(((Long) value).longValue(), index);
+		} else if (value instanceof Double || value instanceof Float) {
+			record.setValue(((Number) value).doubleValue(), index);
+		} else {
+			record.setValue(value, index);
+		}
+	}
+
+	public static String toString(Object value, String dateFormat) {
+		if (value == null) {
+			return StringUtils.EMPTY;
+		}
+		if (value instanceof Date) {
+			return JCODateFormat.of(StringUtils.defaultIfEmpty(dateFormat, JCODateFormat.SAP_DATE), JCODateFormat.SAP_DATE).format((Date) value);
+		}
+		return StringUtils.trim(String.valueOf(value));
+	}
+
+	public static int toInt(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).intValue();
+		}
+		String text = text(value);
+		return text.isEmpty() ? 0 : Integer.parseInt(text);
+	}
+
+	public static Integer toInteger(Object value) {
+		return isBlank(value) ? null : toInt(value);
+	}
+
+	public static long toLong(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		}
+		String text = text(value);
+		return text.isEmpty() ? 0L : Long.parseLong(text);
+	}
+
+	public static Long toLongObject(Object value) {
+		return isBlank(value) ? null : toLong(value);
+	}
+
+	public static short toShort(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).shortValue();
+		}
+		String text = text(value);
+		return text.isEmpty() ? 0 : Short.parseShort(text);
+	}
+
+	public static Short toShortObject(Object value) {
+		return isBlank(value) ? null : toShort(value);
+	}
+
+	public static byte toByte(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).byteValue();
+		}
+		String text = text(value);
+		return text.isEmpty() ? 0 : Byte.parseByte(text);
+	}
+
+	public static Byte toByteObject(Object value) {
+		return isBlank(value) ? null : toByte(value);
+	}
+
+	public static double toDouble(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		String text = text(value);
+		return text.isEmpty() ? 0d : Double.parseDouble(text);
+	}
+
+	public static Double toDoubleObject(Object value) {
+		return isBlank(value) ? null : toDouble(value);
+	}
+
+	public static BigDecimal toBigDecimal(Object value) {
+		if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		String text = text(value);
+		return text.isEmpty() ? null : new BigDecimal(text);
+	}
+
+	public static BigInteger toBigInteger(Object value) {
+		if (value instanceof BigInteger) {
+			return (BigInteger) value;
+		}
+		String text = text(value);
+		return text.isEmpty() ? null : new BigInteger(text);
+	}
+
+	public static Date toDate(Object value, String dateFormat) {
+		return (Date) JCODateFormat.of(dateFormat, JCODateFormat.SAP_DATE).convert(value, Date.class);
+	}
+
+	public static LocalDate toLocalDate(Object value, String dateFormat) {
+		return (LocalDate) JCODateFormat.of(dateFormat, JCODateFormat.SAP_DATE).convert(value, LocalDate.class);
+	}
+
+	public static LocalDateTime toLocalDateTime(Object value, String dateFormat) {
+		return (LocalDateTime) JCODateFormat.of(dateFormat, JCODateFormat.SAP_DATE_TIME).convert(value, LocalDateTime.class);
+	}
+
+	public static Instant toInstant(Object value, String dateFormat) {
+		return (Instant) JCODateFormat.of(dateFormat, JCODateFormat.SAP_DATE_TIME).convert(value, Instant.class);
+	}
+
+	private static boolean isBlank(Object value) {
+		return value == null || (value instanceof String && StringUtils.isBlank((String) value));
+	}
+
+	private static String text(Object value) {
+		return value == null ? StringUtils.EMPTY : String.valueOf(value).trim();
+	}
+}
@@ -0,0 +1,163 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class AsyncJCOTemplateTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	AsyncJCOTemplate asyncTemplate = new AsyncJCOTemplate(template);
+	AsyncJCOTemplate other = new AsyncJCOTemplate(template);
+	// released by tearDown, so a slow call never outlives its test
+	CountDownLatch slow = new CountDownLatch(1);
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("TABLE_NAME", 10,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "NAME" + row;
+							}
+						}));
+		backend.function("Z_FAIL")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "E")
+				.table("TABLE_NAME", 1, JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10));
+		backend.function("Z_SLOW")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("TABLE_NAME", 1, JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10))
+				.handler(new JCOFakeBackend.Handler() {
+					public void execute(JCO.Function function) {
+						try {
+							slow.await(5, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				});
+		template.setBackend(backend);
+	}
+
+	@After
+	public void tearDown() {
+		slow.countDown();
+		asyncTemplate.shutdown();
+		other.shutdown();
+	}
+
+	@Test
+	public void executeTableAsync() throws Exception {
+		List<HashMap> list = asyncTemplate.executeTableAsync(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), HashMap.class).get();
+		assertThat(list.size(), is(10));
+		assertThat(backend.getExecutions(), is(1L));
+	}
+
+	@Test
+	public void sharedExecutor() throws Exception {
+		ExecutorService executor = asyncTemplate.getExecutor();
+		assertThat(other.getExecutor(), is(sameInstance(executor)));
+		assertThat(((ThreadPoolExecutor) executor).getMaximumPoolSize(), is(template.getEffectivePoolConfig().getMaxConnections()));
+
+		asyncTemplate.shutdown();
+		assertThat(executor.isShutdown(), is(false));
+		assertThat(other.executeTableAsync(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), HashMap.class).get().size(), is(10));
+
+		other.shutdown();
+		assertThat(executor.isShutdown(), is(true));
+	}
+
+	@Test
+	public void shutdown() throws Exception {
+		asyncTemplate.shutdown();
+		try {
+			asyncTemplate.executeTableAsync(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), HashMap.class).get();
+			fail();
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is(instanceOf(RejectedExecutionException.class)));
+		}
+	}
+
+	@Test
+	public void executeBatch() throws Exception {
+		List<JCOBatchResult<?>> results = asyncTemplate.executeBatch(Arrays.asList(
+				JCOBatchCall.table(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), HashMap.class),
+				JCOBatchCall.output(JCOInput.of("Z_FAIL"), HashMap.class),
+				JCOBatchCall.output(JCOInput.of("FUNCTION_NAME"), HashMap.class)), 5, TimeUnit.SECONDS);
+		assertThat(results.size(), is(3));
+		assertThat(results.get(0).isSuccess(), is(true));
+		assertThat(((List<?>) results.get(0).getValue()).size(), is(10));
+		assertThat(results.get(0).getCall().getInput().getFunctionName(), is("FUNCTION_NAME"));
+		// a failed call does not abort the others
+		assertThat(results.get(1).isSuccess(), is(false));
+		assertThat(results.get(1).isTimeout(), is(false));
+		assertThat(results.get(1).getValue(), is(nullValue()));
+		assertThat(results.get(1).getError(), is(instanceOf(IllegalStateException.class)));
+		assertThat(results.get(2).isSuccess(), is(true));
+		assertThat(((Map<?, ?>) results.get(2).getValue()).get("EV_RETCD"), is((Object) "S"));
+	}
+
+	@Test
+	public void executeBatchTimeout() throws Exception {
+		List<JCOBatchResult<?>> results = asyncTemplate.executeBatch(Arrays.<JCOBatchCall<?>> asList(
+				JCOBatchCall.table(JCOInput.of("Z_SLOW", "TABLE_NAME"), HashMap.class).timeout(50, TimeUnit.MILLISECONDS),
+				JCOBatchCall.table(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), HashMap.class)), 5, TimeUnit.SECONDS);
+		// the timeout of the call overrides the timeout of the batch
+		assertThat(results.get(0).isTimeout(), is(true));
+		assertThat(results.get(0).getError(), is(instanceOf(TimeoutException.class)));
+		assertThat(results.get(0).getValue(), is(nullValue()));
+		assertThat(results.get(1).isSuccess(), is(true));
+		assertThat(((List<?>) results.get(1).getValue()).size(), is(10));
+	}
+
+	@Test
+	public void executeBatchTimeoutInQueue() throws Exception {
+		ExecutorService single = Executors.newSingleThreadExecutor();
+		AsyncJCOTemplate singleTemplate = new AsyncJCOTemplate(template, single);
+		List<JCOBatchResult<?>> results = singleTemplate.executeBatch(Arrays.<JCOBatchCall<?>> asList(
+				JCOBatchCall.table(JCOInput.of("Z_SLOW", "TABLE_NAME"), HashMap.class),
+				JCOBatchCall.table(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), HashMap.class)), 100, TimeUnit.MILLISECONDS);
+		assertThat(results.get(0).isTimeout(), is(true));
+		assertThat(results.get(1).isTimeout(), is(true));
+
+		slow.countDown();
+		single.shutdown();
+		assertThat(single.awaitTermination(5, TimeUnit.SECONDS), is(true));
+		// the call timed out in the queue is skipped
+		assertThat(backend.getExecutions(), is(1L));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void queueCapacityAfterCreation() throws Exception {
+		asyncTemplate.getExecutor();
+		asyncTemplate.setQueueCapacity(10);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void queueCapacityConflict() throws Exception {
+		asyncTemplate.getExecutor();
+		other.setQueueCapacity(10);
+		other.getExecutor();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void queueCapacity() throws Exception {
+		asyncTemplate.setQueueCapacity(0);
+	}
+}
@@ -0,0 +1,146 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class JCOAccessorTest {
+	JCOFakeBackend backend = new JCOFakeBackend();
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("IT_INPUT", 0, columns(null))
+				.table("TABLE_NAME", 3, columns(new JCOFakeBackend.Values() {
+					public Object value(int row) {
+						return row + 1;
+					}
+				}));
+	}
+
+	static JCOFakeBackend.Column[] columns(JCOFakeBackend.Values values) {
+		return new JCOFakeBackend.Column[] {
+				JCOFakeBackend.column("INT", JCO.TYPE_INT, 4, values),
+				JCOFakeBackend.column("LONG", JCO.TYPE_INT, 4, values),
+				JCOFakeBackend.column("DOUBLE", JCO.TYPE_FLOAT, 8, values),
+				JCOFakeBackend.column("SHORT", JCO.TYPE_INT2, 2, values),
+				JCOFakeBackend.column("BYTE", JCO.TYPE_INT1, 1, values),
+				JCOFakeBackend.column("TEXT", JCO.TYPE_CHAR, 10, values),
+				JCOFakeBackend.column("FINAL", JCO.TYPE_CHAR, 10, values) };
+	}
+
+	@Test
+	public void strategies() throws Exception {
+		List<Row> methodHandle = execute(JCOAccessorStrategy.METHOD_HANDLE);
+		List<Row> reflection = execute(JCOAccessorStrategy.REFLECTION);
+		assertThat(methodHandle.size(), is(3));
+		for (int i = 0; i < 3; i++) {
+			Row row = methodHandle.get(i);
+			assertTrue(ToStringBuilder.reflectionToString(row), EqualsBuilder.reflectionEquals(row, reflection.get(i)));
+			assertThat(row.intValue, is(i + 1));
+			assertThat(row.longValue, is(i + 1L));
+			assertThat(row.doubleValue, is(i + 1d));
+			assertThat(row.shortValue, is((short) (i + 1)));
+			assertThat(row.byteValue, is((byte) (i + 1)));
+			assertThat(row.text, is(String.valueOf(i + 1)));
+			assertThat(row.finalText, is(String.valueOf(i + 1)));
+		}
+	}
+
+	@Test
+	public void methodHandle() throws Exception {
+		assertThat(JCOAccessor.of(Row.class.getDeclaredField("intValue"), JCOAccessorStrategy.METHOD_HANDLE),
+				is(instanceOf(JCOAccessor.MethodHandleAccessor.class)));
+		assertThat(JCOAccessor.of(Row.class.getDeclaredField("intValue"), JCOAccessorStrategy.REFLECTION),
+				is(instanceOf(JCOAccessor.ReflectionAccessor.class)));
+	}
+
+	@Test
+	public void staticFieldFallsBack() throws Exception {
+		JCOAccessor accessor = JCOAccessor.of(Static.class.getDeclaredField("shared"), JCOAccessorStrategy.METHOD_HANDLE);
+		assertThat(accessor, is(instanceOf(JCOAccessor.ReflectionAccessor.class)));
+		accessor.set(new Static(), "SET");
+		assertThat(Static.shared, is("SET"));
+		assertThat(accessor.get(new Static()), is((Object) "SET"));
+	}
+
+	@Test
+	public void primitiveSetters() throws Exception {
+		for (JCOAccessorStrategy strategy : JCOAccessorStrategy.values()) {
+			Row row = new Row();
+			JCOAccessor.of(Row.class.getDeclaredField("intValue"), strategy).setInt(row, 1);
+			JCOAccessor.of(Row.class.getDeclaredField("longValue"), strategy).setLong(row, 2);
+			JCOAccessor.of(Row.class.getDeclaredField("doubleValue"), strategy).setDouble(row, 3);
+			JCOAccessor.of(Row.class.getDeclaredField("shortValue"), strategy).setShort(row, (short) 4);
+			JCOAccessor.of(Row.class.getDeclaredField("byteValue"), strategy).setByte(row, (byte) 5);
+			// a boxed field is set by the boxed value
+			JCOAccessor.of(Row.class.getDeclaredField("boxed"), strategy).setInt(row, 6);
+			assertThat(Arrays.asList(row.intValue, row.longValue, row.doubleValue, row.shortValue, row.byteValue, row.boxed),
+					is(Arrays.<Object> asList(1, 2L, 3d, (short) 4, (byte) 5, 6)));
+		}
+	}
+
+	@Test
+	public void input() throws Exception {
+		Row row = new Row();
+		row.intValue = 1;
+		row.longValue = 2;
+		row.doubleValue = 3;
+		row.shortValue = 4;
+		row.byteValue = 5;
+		row.text = "TEXT";
+		for (JCOAccessorStrategy strategy : JCOAccessorStrategy.values()) {
+			JCOAnnotationMapper mapper = new JCOAnnotationMapper();
+			mapper.setAccessorStrategy(strategy);
+			JCO.Table table = backend.getRepository().getFunctionTemplate("FUNCTION_NAME").getFunction().getTableParameterList().getTable("IT_INPUT");
+			table.appendRow();
+			mapper.input(table, row);
+			assertThat(Arrays.asList(table.getString("INT"), table.getString("LONG"), table.getString("SHORT"), table.getString("BYTE"),
+					table.getString("TEXT"), table.getString("FINAL")), is(Arrays.asList("1", "2", "4", "5", "TEXT", "FINAL")));
+			assertThat(Double.parseDouble(table.getString("DOUBLE")), is(3d));
+		}
+	}
+
+	private List<Row> execute(JCOAccessorStrategy strategy) throws Exception {
+		JCOAnnotationMapper mapper = new JCOAnnotationMapper();
+		mapper.setAccessorStrategy(strategy);
+		JCOTemplate template = new JCOTemplate();
+		template.setBackend(backend);
+		template.setGeneratedMappers(false);
+		template.setMappers(Arrays.<JCOMapper> asList(mapper));
+		return template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), Row.class);
+	}
+
+	static class Row {
+		@JCOValue("INT")
+		int intValue;
+		@JCOValue("LONG")
+		long longValue;
+		@JCOValue("DOUBLE")
+		double doubleValue;
+		@JCOValue("SHORT")
+		short shortValue;
+		@JCOValue("BYTE")
+		byte byteValue;
+		@JCOValue("TEXT")
+		String text;
+		@JCOValue("FINAL")
+		final String finalText = new String("FINAL");
+		Integer boxed;
+	}
+
+	static class Static {
+		@JCOValue("TEXT")
+		static String shared;
+	}
+}
@@ -0,0 +1,203 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JCOCoalescingExecutorTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	AsyncJCOTemplate asyncTemplate = new AsyncJCOTemplate(template);
+	List<List<String>> sent = Collections.synchronizedList(new ArrayList<List<String>>());
+	JCOCoalescingExecutor<String, Row> executor;
+
+	@Before
+	public void setUp() {
+		backend.function("Z_LOOKUP")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("IT_KEYS", 0, JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10))
+				.table("ET_ROWS", 0,
+						JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10),
+						JCOFakeBackend.column("VALUE", JCO.TYPE_CHAR, 10))
+				.handler(new JCOFakeBackend.Handler() {
+					public void execute(JCO.Function function) {
+						JCO.Table keys = function.getTableParameterList().getTable("IT_KEYS");
+						JCO.Table rows = function.getTableParameterList().getTable("ET_ROWS");
+						rows.deleteAllRows();
+						List<String> batch = new ArrayList<String>();
+						for (int i = 0; i < keys.getNumRows(); i++) {
+							keys.setRow(i);
+							String key = keys.getString("KEY");
+							batch.add(key);
+							// two rows per key, none of NONE
+							for (int j = 1; !key.equals("NONE") && j <= 2; j++) {
+								rows.appendRow();
+								rows.setValue(key, "KEY");
+								rows.setValue(key + "-" + j, "VALUE");
+							}
+						}
+						sent.add(batch);
+					}
+				});
+		backend.function("Z_FAIL")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "E")
+				.table("IT_KEYS", 0, JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10))
+				.table("ET_ROWS", 1, JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10));
+		template.setBackend(backend);
+		executor = executor("Z_LOOKUP");
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+		asyncTemplate.shutdown();
+	}
+
+	@Test
+	public void batchBySize() throws Exception {
+		executor.window(1, TimeUnit.HOURS).maxBatchSize(3);
+		CompletableFuture<List<Row>> a = executor.submit("A");
+		CompletableFuture<List<Row>> b = executor.submit("B");
+		CompletableFuture<List<Row>> c = executor.submit("C");
+		assertThat(values(a.get(5, TimeUnit.SECONDS)), is(Arrays.asList("A-1", "A-2")));
+		assertThat(values(b.get(5, TimeUnit.SECONDS)), is(Arrays.asList("B-1", "B-2")));
+		assertThat(values(c.get(5, TimeUnit.SECONDS)), is(Arrays.asList("C-1", "C-2")));
+		assertThat(sent, is(Arrays.asList(Arrays.asList("A", "B", "C"))));
+		assertThat(executor.getCallCount(), is(1L));
+		assertThat(backend.getExecutions(), is(1L));
+	}
+
+	@Test
+	public void batchByWindow() throws Exception {
+		executor.window(50, TimeUnit.MILLISECONDS);
+		CompletableFuture<List<Row>> a = executor.submit("A");
+		CompletableFuture<List<Row>> b = executor.submit("B");
+		assertThat(values(a.get(5, TimeUnit.SECONDS)), is(Arrays.asList("A-1", "A-2")));
+		assertThat(values(b.get(5, TimeUnit.SECONDS)), is(Arrays.asList("B-1", "B-2")));
+		assertThat(sent, is(Arrays.asList(Arrays.asList("A", "B"))));
+
+		CompletableFuture<List<Row>> c = executor.submit("C");
+		assertThat(values(c.get(5, TimeUnit.SECONDS)), is(Arrays.asList("C-1", "C-2")));
+		assertThat(executor.getCallCount(), is(2L));
+	}
+
+	@Test
+	public void duplicateKeys() throws Exception {
+		executor.window(1, TimeUnit.HOURS);
+		CompletableFuture<List<Row>> first = executor.submit("A");
+		CompletableFuture<List<Row>> second = executor.submit("A");
+		CompletableFuture<List<Row>> b = executor.submit("B");
+		executor.flush();
+		assertThat(values(first.get(5, TimeUnit.SECONDS)), is(Arrays.asList("A-1", "A-2")));
+		assertThat(values(second.get(5, TimeUnit.SECONDS)), is(Arrays.asList("A-1", "A-2")));
+		assertThat(second.get(), is(not(sameInstance(first.get()))));
+		assertThat(values(b.get(5, TimeUnit.SECONDS)), is(Arrays.asList("B-1", "B-2")));
+		assertThat(sent, is(Arrays.asList(Arrays.asList("A", "B"))));
+		assertThat(executor.getSubmitCount(), is(3L));
+	}
+
+	@Test
+	public void keyWithoutRows() throws Exception {
+		executor.window(1, TimeUnit.HOURS);
+		CompletableFuture<List<Row>> none = executor.submit("NONE");
+		CompletableFuture<List<Row>> a = executor.submit("A");
+		executor.flush();
+		assertThat(none.get(5, TimeUnit.SECONDS).isEmpty(), is(true));
+		assertThat(values(a.get(5, TimeUnit.SECONDS)), is(Arrays.asList("A-1", "A-2")));
+	}
+
+	@Test
+	public void failure() throws Exception {
+		executor.shutdown();
+		executor = executor("Z_FAIL").window(1, TimeUnit.HOURS);
+		CompletableFuture<List<Row>> a = executor.submit("A");
+		CompletableFuture<List<Row>> b = executor.submit("B");
+		executor.flush();
+		assertFailed(a, IllegalStateException.class);
+		assertFailed(b, IllegalStateException.class);
+	}
+
+	@Test
+	public void inputRowFailure() throws Exception {
+		executor.shutdown();
+		executor = new JCOCoalescingExecutor<String, Row>(asyncTemplate, "Z_LOOKUP", Row.class, new Key())
+				.inputTable("IT_KEYS", new JCOCoalescingExecutor.InputRow<String>() {
+					@Override
+					public Object row(String key) {
+						if (key.equals("BAD")) {
+							throw new IllegalArgumentException("Bad key : " + key);
+						}
+						return Collections.singletonMap("KEY", key);
+					}
+				})
+				.outputTable("ET_ROWS")
+				.window(1, TimeUnit.HOURS);
+		CompletableFuture<List<Row>> a = executor.submit("A");
+		CompletableFuture<List<Row>> bad = executor.submit("BAD");
+		executor.flush();
+		assertFailed(a, IllegalArgumentException.class);
+		assertFailed(bad, IllegalArgumentException.class);
+		assertThat(backend.getExecutions(), is(0L));
+
+		// a failed batch does not fail the next one
+		executor.maxBatchSize(1);
+		assertThat(values(executor.submit("B").get(5, TimeUnit.SECONDS)), is(Arrays.asList("B-1", "B-2")));
+	}
+
+	@Test
+	public void shutdown() throws Exception {
+		executor.window(1, TimeUnit.HOURS);
+		CompletableFuture<List<Row>> a = executor.submit("A");
+		executor.shutdown();
+		assertThat(values(a.get(5, TimeUnit.SECONDS)), is(Arrays.asList("A-1", "A-2")));
+		assertFailed(executor.submit("B"), RejectedExecutionException.class);
+	}
+
+	JCOCoalescingExecutor<String, Row> executor(String functionName) {
+		return new JCOCoalescingExecutor<String, Row>(asyncTemplate, functionName, Row.class, new Key())
+				.inputTable("IT_KEYS", "KEY")
+				.outputTable("ET_ROWS");
+	}
+
+	static void assertFailed(CompletableFuture<?> future, Class<? extends Throwable> type) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is(instanceOf(type)));
+		}
+	}
+
+	static List<String> values(List<Row> rows) {
+		List<String> values = new ArrayList<String>();
+		for (Row row : rows) {
+			values.add(row.value);
+		}
+		return values;
+	}
+
+	static class Key implements JCOCoalescingExecutor.KeyExtractor<String, Row> {
+		@Override
+		public String key(Row row) {
+			return row.key;
+		}
+	}
+
+	static class Row {
+		@JCOValue("KEY")
+		String key;
+		@JCOValue("VALUE")
+		String value;
+	}
+}
@@ -0,0 +1,131 @@
+package sap;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JCOConnectorTest {
+	static final String POOL_NAME = "JCOConnectorTest";
+
+	Properties properties = new Properties();
+
+	@After
+	public void tearDown() {
+		JCOConnector.removeClientPool(POOL_NAME);
+	}
+
+	@Test
+	public void addClientPool() throws Exception {
+		JCOPoolConfig config = new JCOPoolConfig();
+		config.setMaxConnections(3);
+		config.setMaxWaitTime(1000);
+
+		JCOPoolConfig effective = JCOConnector.addClientPool(properties, POOL_NAME, config);
+		assertThat(effective, is(config));
+		assertThat(JCOConnector.getPool(POOL_NAME).getMaxConnections(), is(3));
+		assertThat(JCOConnector.getPool(POOL_NAME).getMaxWaitTime(), is(1000L));
+
+		config.setMaxConnections(10);
+		assertThat(effective.getMaxConnections(), is(3));
+	}
+
+	@Test
+	public void addClientPoolShared() throws Exception {
+		JCOPoolConfig config = new JCOPoolConfig();
+		config.setMaxConnections(3);
+		JCOConnector.addClientPool(properties, POOL_NAME, config);
+
+		JCOPoolConfig same = new JCOPoolConfig();
+		same.setMaxConnections(3);
+		assertThat(JCOConnector.addClientPool(properties, POOL_NAME, same), is(config));
+	}
+
+	@Test
+	public void addClientPoolConflict() throws Exception {
+		JCOPoolConfig config = new JCOPoolConfig();
+		config.setMaxConnections(3);
+		JCOConnector.addClientPool(properties, POOL_NAME, config);
+
+		JCOPoolConfig other = new JCOPoolConfig();
+		other.setMaxConnections(10);
+		try {
+			JCOConnector.addClientPool(properties, POOL_NAME, other);
+			fail();
+		} catch (IllegalStateException e) {
+			assertThat(JCOConnector.getPool(POOL_NAME).getMaxConnections(), is(3));
+		}
+	}
+
+	@Test
+	public void releaseClientPool() throws Exception {
+		JCOPoolConfig config = new JCOPoolConfig();
+		JCOConnector.acquireClientPool(properties, POOL_NAME, config);
+		JCOConnector.acquireClientPool(properties, POOL_NAME, config);
+
+		JCOConnector.releaseClientPool(POOL_NAME);
+		assertThat(JCOConnector.getPool(POOL_NAME), is(notNullValue()));
+		JCOConnector.releaseClientPool(POOL_NAME);
+		assertThat(JCOConnector.getPool(POOL_NAME), is(nullValue()));
+	}
+
+	@Test
+	public void invalidateSharedPool() throws Exception {
+		JCOTemplate template = template();
+		JCOTemplate other = template();
+		template.getRepository();
+		other.getRepository();
+		assertThat(template.getPoolStatus().getPoolName(), is(POOL_NAME));
+
+		template.invalidate();
+		assertThat(JCOConnector.getPool(POOL_NAME), is(notNullValue()));
+		assertThat(other.getPoolStatus(), is(notNullValue()));
+
+		other.invalidate();
+		assertThat(JCOConnector.getPool(POOL_NAME), is(nullValue()));
+	}
+
+	@Test
+	public void connectorOwnsPool() throws Exception {
+		JCOTemplate template = template();
+		JCOConnector connector = JCOConnector.create(template.getRepository(), POOL_NAME);
+
+		// the open connector keeps the pool
+		template.invalidate();
+		assertThat(JCOConnector.getPool(POOL_NAME), is(notNullValue()));
+
+		connector.release();
+		assertThat(JCOConnector.getPool(POOL_NAME), is(nullValue()));
+		connector.release();
+	}
+
+	@Test
+	public void poolNameOfCredentials() throws Exception {
+		properties.setProperty("jco.client.client", "100");
+		properties.setProperty("jco.client.user", "USER");
+		properties.setProperty("jco.client.ashost", "host");
+		properties.setProperty("jco.client.passwd", "secret");
+		String poolName = JCOTemplate.poolName(properties);
+		assertThat(poolName, startsWith("JCO_100_USER_host_"));
+		assertThat(poolName, not(containsString("secret")));
+		assertThat(JCOTemplate.poolName(properties), is(poolName));
+
+		properties.setProperty("jco.client.passwd", "changed");
+		assertThat(JCOTemplate.poolName(properties), is(not(poolName)));
+	}
+
+	JCOTemplate template() {
+		JCOTemplate template = new JCOTemplate() {
+			@Override
+			Properties load(String propName) {
+				return properties;
+			}
+		};
+		template.setPoolName(POOL_NAME);
+		return template;
+	}
+}
@@ -0,0 +1,152 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JCOConvertersTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	JCOInput input = JCOInput.of("FUNCTION_NAME", "TABLE_NAME");
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("TABLE_NAME", 3,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "NAME" + row;
+							}
+						}),
+						JCOFakeBackend.column("PRICE", JCO.TYPE_BCD, 9, 2, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return new BigDecimal(row).movePointLeft(2);
+							}
+						}),
+						JCOFakeBackend.column("STATUS", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row == 0 ? "" : row == 1 ? "OPEN" : "CLOSED";
+							}
+						}));
+		template.setBackend(backend);
+	}
+
+	@Test
+	public void version() throws Exception {
+		JCOConverters converters = new JCOConverters();
+		assertThat(converters.isEmpty(), is(true));
+		converters.register(String.class, new Lower());
+		assertThat(converters.version(), is(1));
+		converters.register(JCO.TYPE_CHAR, String.class, new Lower());
+		assertThat(converters.version(), is(2));
+		assertThat(converters.get(String.class).size(), is(2));
+		assertThat(converters.get(Integer.class).isEmpty(), is(true));
+	}
+
+	@Test
+	public void registerAfterFirstCall() throws Exception {
+		assertThat(template.executeTable(input, Name.class).get(1).name, is("NAME1"));
+		template.registerConverter(String.class, new Lower());
+		assertThat(template.executeTable(input, Name.class).get(1).name, is("name1"));
+	}
+
+	@Test
+	public void converts() throws Exception {
+		JCOConverters converters = new JCOConverters();
+		assertThat(converters.converts(Name.class), is(false));
+		converters.register(BigDecimal.class, new JCOConverter<BigDecimal>() {
+			public BigDecimal convert(Object value) {
+				return BigDecimal.ONE;
+			}
+		});
+		assertThat(converters.converts(Name.class), is(false));
+		assertThat(converters.converts(Price.class), is(true));
+		converters.register(Status.class, new JCOConverter<Status>() {
+			public Status convert(Object value) {
+				return Status.OPEN;
+			}
+		});
+		assertThat(converters.converts(Code.class), is(true));
+	}
+
+	@Test
+	public void generatedMapperPerClass() throws Exception {
+		assertThat(template.selectMapper(Name.class), is(instanceOf(JCOGeneratedMappers.Lookup.class)));
+		assertThat(template.selectMapper(Price.class), is(instanceOf(JCOGeneratedMappers.Lookup.class)));
+
+		template.registerConverter(BigDecimal.class, new JCOConverter<BigDecimal>() {
+			public BigDecimal convert(Object value) {
+				return BigDecimal.TEN;
+			}
+		});
+		assertThat(template.selectMapper(Name.class), is(instanceOf(JCOGeneratedMappers.Lookup.class)));
+		assertThat(template.selectMapper(Price.class), is(instanceOf(JCOAnnotationMapper.class)));
+		List<Price> prices = template.executeTable(input, Price.class);
+		assertThat(prices.get(1).price, is(BigDecimal.TEN));
+		assertThat(prices.get(1).name, is("NAME1"));
+	}
+
+	@Test
+	public void enumByName() throws Exception {
+		List<Code> codes = template.executeTable(input, Code.class);
+		assertThat(codes.get(0).status, is(nullValue()));
+		assertThat(codes.get(1).status, is(Status.OPEN));
+		assertThat(codes.get(2).status, is(Status.CLOSED));
+		assertThat(codes.get(0).optional, is(Optional.<Status> empty()));
+		assertThat(codes.get(2).optional, is(Optional.of(Status.CLOSED)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownEnum() throws Exception {
+		JCOConverters.builtIn(Status.class, JCODateFormat.of("", JCODateFormat.SAP_DATE)).convert("UNKNOWN");
+	}
+
+	@Test
+	public void registeredEnum() throws Exception {
+		template.registerConverter(JCO.TYPE_CHAR, Status.class, new JCOConverter<Status>() {
+			public Status convert(Object value) {
+				return "OPEN".equals(value) ? Status.OPEN : Status.CLOSED;
+			}
+		});
+		List<Code> codes = template.executeTable(input, Code.class);
+		assertThat(codes.get(0).status, is(Status.CLOSED));
+		assertThat(codes.get(1).optional, is(Optional.of(Status.OPEN)));
+	}
+
+	static class Lower implements JCOConverter<String> {
+		public String convert(Object value) {
+			return value.toString().trim().toLowerCase();
+		}
+	}
+
+	enum Status {
+		OPEN, CLOSED
+	}
+
+	static class Name {
+		@JCOValue("NAME")
+		String name;
+	}
+
+	static class Price {
+		@JCOValue("NAME")
+		String name;
+		@JCOValue("PRICE")
+		BigDecimal price;
+	}
+
+	static class Code {
+		@JCOValue("STATUS")
+		Status status;
+		@JCOValue("STATUS")
+		Optional<Status> optional;
+	}
+}
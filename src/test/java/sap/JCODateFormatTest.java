@@ -0,0 +1,86 @@
+package sap;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JCODateFormatTest {
+	Date date = new GregorianCalendar(2017, Calendar.MARCH, 1, 12, 30, 15).getTime();
+
+	@Test
+	public void format() throws Exception {
+		assertThat(JCODateFormat.of("yyyy-MM-dd", JCODateFormat.SAP_DATE).format(date), is("2017-03-01"));
+		assertThat(JCODateFormat.of("yyyy-MM-dd", JCODateFormat.SAP_DATE).format(null), is(""));
+	}
+
+	@Test
+	public void formatEmptyPattern() throws Exception {
+		assertThat(JCODateFormat.of("", JCODateFormat.SAP_DATE).format(date), is("20170301"));
+		assertThat(JCODateFormat.of(null, JCODateFormat.SAP_DATE).format(date), is("20170301"));
+		assertThat(JCODateFormat.of("", LocalDateTime.class).format(date), is("20170301123015"));
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		Date day = new GregorianCalendar(2017, Calendar.MARCH, 1).getTime();
+		for (String pattern : new String[] { "", "yyyy-MM-dd", "yyyy#MM#dd" }) {
+			JCODateFormat format = JCODateFormat.of(pattern, Date.class);
+			assertThat(pattern, format.convert(format.format(day), Date.class), is((Object) day));
+			assertThat(pattern, format.convert(format.format(day), LocalDate.class), is((Object) LocalDate.of(2017, 3, 1)));
+		}
+		JCODateFormat dateTime = JCODateFormat.of("", LocalDateTime.class);
+		assertThat(dateTime.convert(dateTime.format(date), LocalDateTime.class), is((Object) LocalDateTime.of(2017, 3, 1, 12, 30, 15)));
+	}
+
+	@Test
+	public void convertEmptyPattern() throws Exception {
+		JCODateFormat format = JCODateFormat.of("", JCODateFormat.SAP_DATE);
+		assertThat(format.convert("20170301", LocalDate.class), is((Object) LocalDate.of(2017, 3, 1)));
+		assertThat(format.convert("20170301", Date.class), is((Object) new GregorianCalendar(2017, Calendar.MARCH, 1).getTime()));
+		assertThat(JCODateFormat.of("", LocalDateTime.class).convert("20170301123015", LocalDateTime.class),
+				is((Object) LocalDateTime.of(2017, 3, 1, 12, 30, 15)));
+	}
+
+	@Test
+	public void convertSimpleDateFormatPattern() throws Exception {
+		// '#' is reserved by DateTimeFormatter, but a literal for SimpleDateFormat
+		JCODateFormat format = JCODateFormat.of("yyyy#MM#dd", JCODateFormat.SAP_DATE);
+		assertThat(format.convert("2017#03#01", LocalDate.class), is((Object) LocalDate.of(2017, 3, 1)));
+		assertThat(format.convert("2017#03#01", Date.class), is((Object) new GregorianCalendar(2017, Calendar.MARCH, 1).getTime()));
+		assertThat(format.format(date), is("2017#03#01"));
+		assertThat(format.convert("2017#03#01", LocalDateTime.class), is((Object) LocalDateTime.of(2017, 3, 1, 0, 0)));
+	}
+
+	@Test
+	public void convertDate() throws Exception {
+		JCODateFormat format = JCODateFormat.of("", JCODateFormat.SAP_DATE);
+		assertThat(format.convert(date, Date.class), is((Object) date));
+		assertThat(format.convert(date, LocalDate.class), is((Object) LocalDate.of(2017, 3, 1)));
+		assertThat(format.convert(date, LocalDateTime.class), is((Object) LocalDateTime.of(2017, 3, 1, 12, 30, 15)));
+		assertThat(format.convert(date, java.time.Instant.class),
+				is((Object) LocalDateTime.of(2017, 3, 1, 12, 30, 15).atZone(ZoneId.systemDefault()).toInstant()));
+	}
+
+	@Test
+	public void convertInitial() throws Exception {
+		JCODateFormat format = JCODateFormat.of("", JCODateFormat.SAP_DATE);
+		assertThat(format.convert("00000000", LocalDate.class), is(nullValue()));
+		assertThat(format.convert(" ", Date.class), is(nullValue()));
+		assertThat(format.convert("0000-00-00", LocalDate.class), is(nullValue()));
+		assertThat(format.convert("2017-03-01", LocalDate.class), is(nullValue()));
+	}
+
+	@Test
+	public void cached() throws Exception {
+		assertThat(JCODateFormat.of("yyyy", JCODateFormat.SAP_DATE), is(sameInstance(JCODateFormat.of("yyyy", JCODateFormat.SAP_DATE))));
+		assertThat(JCODateFormat.of("", JCODateFormat.SAP_DATE), is(not(sameInstance(JCODateFormat.of("", JCODateFormat.SAP_DATE_TIME)))));
+	}
+}
@@ -0,0 +1,70 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class JCOFakeBackendTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.input("IV_TYPE", JCO.TYPE_CHAR, 1)
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.output("MESSAGE", JCO.TYPE_CHAR, 20, "OK")
+				.table("TABLE_NAME", 1000,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "NAME" + row;
+							}
+						}),
+						JCOFakeBackend.column("KEY", JCO.TYPE_INT, 4, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row;
+							}
+						}));
+		template.setBackend(backend);
+	}
+
+	@Test
+	public void executeTableMap() throws Exception {
+		List<HashMap> list = template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), HashMap.class);
+		assertThat(list.size(), is(1000));
+		assertThat(list.get(7).get("NAME"), is((Object) "NAME7"));
+		assertThat(backend.getExecutions(), is(1L));
+	}
+
+	@Test
+	public void executeTableObject() throws Exception {
+		Map<String, Object> inputMap = new HashMap<String, Object>();
+		inputMap.put("IV_TYPE", "A");
+
+		JCOInput input = JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(inputMap);
+		List<Result> list = template.executeTable(input, Result.class);
+		assertThat(list.size(), is(1000));
+		assertThat(list.get(999).name, is("NAME999"));
+		assertThat(list.get(999).key, is(999));
+	}
+
+	@Test
+	public void executeOutputObject() throws Exception {
+		Result output = template.executeOutput(JCOInput.of("FUNCTION_NAME"), Result.class);
+		assertThat(output.message, is("OK"));
+	}
+
+	static class Result {
+		@JCOValue("NAME")
+		private String name;
+		@JCOValue("KEY")
+		private int key;
+		@JCOValue("MESSAGE")
+		private String message;
+	}
+}
@@ -0,0 +1,130 @@
+package sap;
+
+import com.sap.mw.jco.IFunctionTemplate;
+import com.sap.mw.jco.IRepository;
+import com.sap.mw.jco.JCO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JCOFunctionTemplateCacheTest {
+	JCOFakeBackend backend = new JCOFakeBackend();
+	AtomicInteger fetches = new AtomicInteger();
+	IRepository repository;
+
+	@Before
+	public void setUp() {
+		for (String functionName : Arrays.asList("F1", "F2", "F3")) {
+			backend.function(functionName).output("EV_RETCD", JCO.TYPE_CHAR, 1, "S");
+		}
+		final IRepository target = backend.getRepository();
+		// counts the metadata requests reaching the repository
+		repository = (IRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { IRepository.class },
+				new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getName().equals("getFunctionTemplate")) {
+							fetches.incrementAndGet();
+						}
+						return method.invoke(target, args);
+					}
+				});
+	}
+
+	@Test
+	public void get() throws Exception {
+		JCOFunctionTemplateCache cache = new JCOFunctionTemplateCache();
+		IFunctionTemplate template = cache.get(repository, "F1");
+		assertThat(cache.get(repository, "F1"), is(sameInstance(template)));
+		assertThat(fetches.get(), is(1));
+		assertThat(cache.size(), is(1));
+	}
+
+	@Test
+	public void leastRecentlyUsed() throws Exception {
+		JCOFunctionTemplateCache cache = new JCOFunctionTemplateCache(2);
+		cache.get(repository, "F1");
+		cache.get(repository, "F2");
+		cache.get(repository, "F1");
+		cache.get(repository, "F3");
+		assertThat(cache.size(), is(2));
+		assertThat(fetches.get(), is(3));
+
+		cache.get(repository, "F1");
+		assertThat(fetches.get(), is(3));
+		cache.get(repository, "F2");
+		assertThat(fetches.get(), is(4));
+	}
+
+	@Test
+	public void concurrentGet() throws Exception {
+		final JCOFunctionTemplateCache cache = new JCOFunctionTemplateCache(2);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < 1000; i++) {
+			final String functionName = "F" + (i % 3 + 1);
+			futures.add(executor.submit(new Runnable() {
+				public void run() {
+					assertThat(cache.get(repository, functionName).getName(), is(functionName));
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		assertThat(cache.size(), is(2));
+	}
+
+	@Test
+	public void timeToLive() throws Exception {
+		JCOFunctionTemplateCache cache = new JCOFunctionTemplateCache();
+		cache.setTimeToLive(1, TimeUnit.MILLISECONDS);
+		cache.get(repository, "F1");
+		Thread.sleep(10);
+		cache.get(repository, "F1");
+		assertThat(fetches.get(), is(2));
+	}
+
+	@Test
+	public void preload() throws Exception {
+		JCOFunctionTemplateCache cache = new JCOFunctionTemplateCache();
+		cache.preload(repository, Arrays.asList("F1", "F2"));
+		assertThat(fetches.get(), is(2));
+		cache.get(repository, "F2");
+		assertThat(fetches.get(), is(2));
+	}
+
+	@Test
+	public void invalidate() throws Exception {
+		JCOFunctionTemplateCache cache = new JCOFunctionTemplateCache();
+		cache.get(repository, "F1");
+		cache.invalidate();
+		assertThat(cache.size(), is(0));
+		cache.get(repository, "F1");
+		assertThat(fetches.get(), is(2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notFound() throws Exception {
+		new JCOFunctionTemplateCache().get(repository, "UNKNOWN");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxSize() throws Exception {
+		new JCOFunctionTemplateCache(0);
+	}
+}
@@ -0,0 +1,245 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JCOInputTest {
+
+	@Test
+	public void chunks() throws Exception {
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		JCOInput input = JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(parameters)
+				.addInputTable("IT_KEYS", keys(5))
+				.addInputTable("IT_OTHER", keys(1))
+				.project("TABLE_NAME", "KEY")
+				.chunk("IT_KEYS", 2);
+
+		List<JCOInput> chunks = input.chunks();
+		assertThat(chunks.size(), is(3));
+		assertThat(chunks.get(0).getInputTables().get("IT_KEYS"), is(keys(5).subList(0, 2)));
+		assertThat(chunks.get(1).getInputTables().get("IT_KEYS"), is(keys(5).subList(2, 4)));
+		assertThat(chunks.get(2).getInputTables().get("IT_KEYS"), is(keys(5).subList(4, 5)));
+		for (JCOInput chunk : chunks) {
+			assertThat(chunk.getFunctionName(), is("FUNCTION_NAME"));
+			assertThat(chunk.getTableNames(), is(Arrays.asList("TABLE_NAME")));
+			assertThat(chunk.getInput(), is(sameInstance((Object) parameters)));
+			assertThat(chunk.getInputTables().get("IT_OTHER"), is(keys(1)));
+			assertThat(chunk.getProjectedColumns("TABLE_NAME"), is((Set<String>) Collections.singleton("KEY")));
+		}
+	}
+
+	@Test
+	public void chunksNotSplit() throws Exception {
+		JCOInput input = JCOInput.of("FUNCTION_NAME", "TABLE_NAME").addInputTable("IT_KEYS", keys(2));
+		assertThat(input.chunks(), is(Collections.singletonList(input)));
+		input.chunk("IT_KEYS", 2);
+		assertThat(input.chunks(), is(Collections.singletonList(input)));
+		input.chunk("IT_MISSING", 1);
+		assertThat(input.chunks(), is(Collections.singletonList(input)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void chunkSize() throws Exception {
+		JCOInput.of("FUNCTION_NAME").chunk("IT_KEYS", 0);
+	}
+
+	@Test
+	public void executeChunks() throws Exception {
+		JCOFakeBackend backend = echoBackend();
+		JCOTemplate template = new JCOTemplate();
+		template.setBackend(backend);
+
+		List<HashMap> list = template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").addInputTable("IT_KEYS", keys(5))
+				.chunk("IT_KEYS", 2), HashMap.class);
+		assertThat(backend.getExecutions(), is(3L));
+		assertThat(list.size(), is(5));
+		for (int i = 0; i < 5; i++) {
+			assertThat(list.get(i).get("KEY"), is((Object) ("K" + i)));
+		}
+	}
+
+	@Test
+	public void executeChunksMergedTables() throws Exception {
+		JCOTemplate template = new JCOTemplate();
+		template.setBackend(echoBackend());
+
+		JCOTables tables = template.executeTables(JCOInput.of("FUNCTION_NAME", "TABLE_NAME", "ET_HEADER").addInputTable("IT_KEYS", keys(5))
+				.chunk("IT_KEYS", 2, "TABLE_NAME"), HashMap.class);
+		assertThat(tables.table("TABLE_NAME").size(), is(5));
+		assertThat(tables.table("ET_HEADER").size(), is(1));
+
+		tables = template.executeTables(JCOInput.of("FUNCTION_NAME", "TABLE_NAME", "ET_HEADER").addInputTable("IT_KEYS", keys(5))
+				.chunk("IT_KEYS", 2), HashMap.class);
+		assertThat(tables.table("ET_HEADER").size(), is(3));
+	}
+
+	@Test
+	public void executeChunksConcurrently() throws Exception {
+		JCOFakeBackend backend = echoBackend();
+		JCOTemplate template = new JCOTemplate();
+		template.setBackend(backend);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			template.setChunkExecutor(executor);
+			List<HashMap> list = template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").addInputTable("IT_KEYS", keys(10))
+					.chunk("IT_KEYS", 3), HashMap.class);
+			assertThat(backend.getExecutions(), is(4L));
+			assertThat(list.size(), is(10));
+			for (int i = 0; i < 10; i++) {
+				assertThat(list.get(i).get("KEY"), is((Object) ("K" + i)));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void projectClass() throws Exception {
+		JCOInput input = JCOInput.of("FUNCTION_NAME", "TABLE_NAME").project("TABLE_NAME", Field.class);
+		assertThat(input.getProjectedColumns("TABLE_NAME"), is((Set<String>) new LinkedHashSet<String>(Arrays.asList("NAME", "KEY"))));
+		assertThat(input.getProjection("TABLE_NAME"), is(input.getProjectedColumns("TABLE_NAME")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void projectNoColumns() throws Exception {
+		JCOInput.of("FUNCTION_NAME", "TABLE_NAME").project("TABLE_NAME");
+	}
+
+	@Test
+	public void executeProjection() throws Exception {
+		JCOTemplate template = new JCOTemplate();
+		template.setBackend(echoBackend());
+		List<HashMap> list = template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").addInputTable("IT_KEYS", keys(2))
+				.project("TABLE_NAME", "KEY"), HashMap.class);
+		assertThat(list.get(1), is((Map) Collections.singletonMap("KEY", "K1")));
+	}
+
+	@Test
+	public void pushdownOutputClass() throws Exception {
+		List<String> fields = new ArrayList<String>();
+		JCOTemplate template = new JCOTemplate();
+		template.setBackend(fieldsBackend(fields));
+		JCOInput input = JCOInput.of("FUNCTION_NAME", "DATA").pushdown("DATA", "FIELDS", "FIELDNAME");
+
+		List<Field> list = template.executeTable(input, Field.class);
+		assertThat(fields, is(Arrays.asList("NAME", "KEY")));
+		assertThat(list.get(0).name, is("NAME"));
+		assertThat(input.getProjectedColumns("DATA"), is(nullValue()));
+
+		fields.clear();
+		template.forEachRow(input, Field.class, new Consumer<Field>() {
+			public void accept(Field field) {
+			}
+		});
+		assertThat(fields, is(Arrays.asList("NAME", "KEY")));
+	}
+
+	@Test
+	public void pushdownProjection() throws Exception {
+		List<String> fields = new ArrayList<String>();
+		JCOTemplate template = new JCOTemplate();
+		template.setBackend(fieldsBackend(fields));
+		template.executeTable(JCOInput.of("FUNCTION_NAME", "DATA").project("DATA", "KEY").pushdown("DATA", "FIELDS", "FIELDNAME"), HashMap.class);
+		assertThat(fields, is(Arrays.asList("KEY")));
+	}
+
+	@Test
+	public void pushdownWithoutProjection() throws Exception {
+		JCOFakeBackend backend = fieldsBackend(new ArrayList<String>());
+		JCOTemplate template = new JCOTemplate();
+		template.setBackend(backend);
+		JCOInput input = JCOInput.of("FUNCTION_NAME", "DATA").pushdown("DATA", "FIELDS", "FIELDNAME");
+		try {
+			template.executeTable(input, HashMap.class);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertThat(backend.getExecutions(), is(0L));
+		}
+		try {
+			template.executeOutput(input, Field.class);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertThat(backend.getExecutions(), is(0L));
+		}
+	}
+
+	/**
+	 * @return backend recording the field names of the pushdown table
+	 */
+	static JCOFakeBackend fieldsBackend(final List<String> fields) {
+		JCOFakeBackend backend = new JCOFakeBackend();
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("FIELDS", 0, JCOFakeBackend.column("FIELDNAME", JCO.TYPE_CHAR, 30))
+				.table("DATA", 1,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "NAME";
+							}
+						}),
+						JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10))
+				.handler(new JCOFakeBackend.Handler() {
+					public void execute(JCO.Function function) {
+						JCO.Table table = function.getTableParameterList().getTable("FIELDS");
+						for (int i = 0; i < table.getNumRows(); i++) {
+							table.setRow(i);
+							fields.add(table.getString("FIELDNAME"));
+						}
+					}
+				});
+		return backend;
+	}
+
+	/**
+	 * @return backend returning the keys of the input table as the rows of the output table
+	 */
+	static JCOFakeBackend echoBackend() {
+		JCOFakeBackend backend = new JCOFakeBackend();
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("IT_KEYS", 0, JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10))
+				.table("TABLE_NAME", 0, JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10))
+				.table("ET_HEADER", 1, JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+					public Object value(int row) {
+						return "HEADER";
+					}
+				}))
+				.handler(new JCOFakeBackend.Handler() {
+					public void execute(JCO.Function function) {
+						JCO.Table keys = function.getTableParameterList().getTable("IT_KEYS");
+						JCO.Table table = function.getTableParameterList().getTable("TABLE_NAME");
+						table.deleteAllRows();
+						for (int i = 0; i < keys.getNumRows(); i++) {
+							keys.setRow(i);
+							table.appendRow();
+							table.setValue(keys.getString("KEY"), "KEY");
+						}
+					}
+				});
+		return backend;
+	}
+
+	static List<Object> keys(int size) {
+		List<Object> keys = new ArrayList<Object>();
+		for (int i = 0; i < size; i++) {
+			keys.add(Collections.<String, Object> singletonMap("KEY", "K" + i));
+		}
+		return keys;
+	}
+
+	static class Field {
+		@JCOValue("NAME")
+		String name;
+		@JCOValue("KEY")
+		String key;
+	}
+}
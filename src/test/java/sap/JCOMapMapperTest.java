@@ -0,0 +1,110 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class JCOMapMapperTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	JCOMapMapper mapper = new JCOMapMapper();
+	List<String> received = new ArrayList<String>();
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("IT_INPUT", 0,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10),
+						JCOFakeBackend.column("KEY", JCO.TYPE_INT, 4))
+				.handler(new JCOFakeBackend.Handler() {
+					public void execute(JCO.Function function) {
+						JCO.Table table = function.getTableParameterList().getTable("IT_INPUT");
+						for (int i = 0; i < table.getNumRows(); i++) {
+							table.setRow(i);
+							received.add(table.getString("NAME") + ":" + table.getString("KEY"));
+						}
+					}
+				});
+		template.setBackend(backend);
+	}
+
+	@Test
+	public void inputSkipsNull() throws Exception {
+		JCO.Table table = table();
+		mapper.input(table, row(null, 1));
+		assertThat(table.getString("NAME"), is("OLD"));
+		assertThat(table.getString("KEY"), is("1"));
+	}
+
+	@Test
+	public void rowWriterSkipsNull() throws Exception {
+		JCO.Table table = table();
+		mapper.rowWriter(table, HashMap.class).input(table, row(null, 1));
+		assertThat(table.getString("NAME"), is("OLD"));
+		assertThat(table.getString("KEY"), is("1"));
+	}
+
+	@Test
+	public void rowWriterIgnoresUnknownKey() throws Exception {
+		JCO.Table table = table();
+		Map<String, Object> row = row("NEW", 2);
+		row.put("UNKNOWN", "X");
+		mapper.rowWriter(table, HashMap.class).input(table, row);
+		assertThat(table.getString("NAME"), is("NEW"));
+		assertThat(table.getString("KEY"), is("2"));
+	}
+
+	@Test
+	public void annotationRowWriterIgnoresUnknownKey() throws Exception {
+		JCO.Table table = table();
+		Input input = new Input();
+		input.name = "NEW";
+		input.unknown = "X";
+		new JCOAnnotationMapper().rowWriter(table, Input.class).input(table, input);
+		assertThat(table.getString("NAME"), is("NEW"));
+	}
+
+	@Test
+	public void addInputTable() throws Exception {
+		Map<String, Object> row = row("A", 1);
+		row.put("UNKNOWN", "X");
+		List<Object> rows = Arrays.<Object> asList(row, row(null, 2));
+		Input input = new Input();
+		input.name = "C";
+		input.unknown = "X";
+
+		template.executeOutput(JCOInput.of("FUNCTION_NAME").addInputTable("IT_INPUT", rows), HashMap.class);
+		assertThat(received, is(Arrays.asList("A:1", ":2")));
+
+		received.clear();
+		template.executeOutput(JCOInput.of("FUNCTION_NAME").addInputTable("IT_INPUT", Arrays.asList(input)), HashMap.class);
+		assertThat(received, is(Arrays.asList("C:0")));
+	}
+
+	JCO.Table table() {
+		JCO.Table table = backend.getRepository().getFunctionTemplate("FUNCTION_NAME").getFunction().getTableParameterList().getTable("IT_INPUT");
+		table.appendRow();
+		table.setValue("OLD", "NAME");
+		return table;
+	}
+
+	static Map<String, Object> row(String name, Integer key) {
+		Map<String, Object> row = new LinkedHashMap<String, Object>();
+		row.put("NAME", name);
+		row.put("KEY", key);
+		return row;
+	}
+
+	static class Input {
+		@JCOValue("NAME")
+		String name;
+		@JCOValue("UNKNOWN")
+		String unknown;
+	}
+}
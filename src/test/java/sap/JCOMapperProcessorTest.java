@@ -0,0 +1,219 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class JCOMapperProcessorTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+
+	@Before
+	public void setUp() {
+		final Date day = new GregorianCalendar(2017, Calendar.MARCH, 1).getTime();
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.output("NAME", JCO.TYPE_CHAR, 10, " ")
+				.output("COUNT", JCO.TYPE_INT, 4, 7)
+				.output("NUMTEXT", JCO.TYPE_CHAR, 5, "")
+				.output("PRICE", JCO.TYPE_BCD, 9, new BigDecimal("1.50"))
+				.output("DAY", JCO.TYPE_DATE, 8, day)
+				.output("DAYTEXT", JCO.TYPE_CHAR, 8, "00000000")
+				.output("RATE", JCO.TYPE_FLOAT, 8, 0.5d)
+				.table("TABLE_NAME", 100,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row % 3 == 0 ? "" : " NAME" + row;
+							}
+						}),
+						JCOFakeBackend.column("COUNT", JCO.TYPE_INT, 4, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row;
+							}
+						}),
+						JCOFakeBackend.column("NUMTEXT", JCO.TYPE_CHAR, 5, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row % 2 == 0 ? "" : String.valueOf(row);
+							}
+						}),
+						JCOFakeBackend.column("PRICE", JCO.TYPE_BCD, 9, 2, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return new BigDecimal(row).movePointLeft(1);
+							}
+						}),
+						JCOFakeBackend.column("DAY", JCO.TYPE_DATE, 8, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row % 4 == 0 ? null : day;
+							}
+						}),
+						JCOFakeBackend.column("DAYTEXT", JCO.TYPE_CHAR, 8, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row % 5 == 0 ? "00000000" : "201701" + (10 + row % 20);
+							}
+						}),
+						JCOFakeBackend.column("RATE", JCO.TYPE_FLOAT, 8, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row / 4d;
+							}
+						}));
+		template.setBackend(backend);
+	}
+
+	@Test
+	public void generated() throws Exception {
+		assertThat(JCOGeneratedMappers.find(Row.class), is(notNullValue()));
+		assertThat(JCOGeneratedMappers.find(Bean.class), is(notNullValue()));
+		assertThat(JCOGeneratedMappers.find(Unsupported.class), is(nullValue()));
+		assertThat(JCOGeneratedMappers.find(Row.class), is(sameInstance(JCOGeneratedMappers.find(Row.class))));
+	}
+
+	@Test
+	public void blankLeavesField() throws Exception {
+		List<Row> list = template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), Row.class);
+		assertThat(list.get(2).numText, is(-1));
+		assertThat(list.get(2).numTextObject, is(-2));
+		assertThat(list.get(1).numText, is(1));
+		assertThat(list.get(1).name, is("NAME1"));
+		assertThat(list.get(3).name, is(""));
+		assertThat(list.get(3).missing, is("kept"));
+	}
+
+	@Test
+	public void executeTable() throws Exception {
+		assertSame(Row.class, JCOInput.of("FUNCTION_NAME", "TABLE_NAME"));
+		assertSame(Bean.class, JCOInput.of("FUNCTION_NAME", "TABLE_NAME"));
+	}
+
+	@Test
+	public void executeTableParallel() throws Exception {
+		template.setParallelMappingThreshold(10);
+		assertSame(Row.class, JCOInput.of("FUNCTION_NAME", "TABLE_NAME"));
+		assertSame(Bean.class, JCOInput.of("FUNCTION_NAME", "TABLE_NAME"));
+	}
+
+	@Test
+	public void executeTableProjection() throws Exception {
+		assertSame(Row.class, JCOInput.of("FUNCTION_NAME", "TABLE_NAME").project("TABLE_NAME", "COUNT", "DAY"));
+		List<Row> list = template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").project("TABLE_NAME", "COUNT"), Row.class);
+		assertThat(list.get(5).count, is(5));
+		assertThat(list.get(5).name, is("init"));
+	}
+
+	@Test
+	public void executeOutput() throws Exception {
+		Row generated = template.executeOutput(JCOInput.of("FUNCTION_NAME"), Row.class);
+		template.setGeneratedMappers(false);
+		Row reflected = template.executeOutput(JCOInput.of("FUNCTION_NAME"), Row.class);
+		assertTrue(ToStringBuilder.reflectionToString(generated), EqualsBuilder.reflectionEquals(generated, reflected));
+		assertThat(generated.numText, is(-1));
+		assertThat(generated.dayText, is("2017.03.01"));
+	}
+
+	private <T> void assertSame(Class<T> outputClass, JCOInput input) throws Exception {
+		template.setGeneratedMappers(true);
+		List<T> generated = template.executeTable(input, outputClass);
+		template.setGeneratedMappers(false);
+		List<T> reflected = template.executeTable(input, outputClass);
+		assertThat(generated.size(), is(reflected.size()));
+		for (int i = 0; i < generated.size(); i++) {
+			assertTrue(ToStringBuilder.reflectionToString(generated.get(i)), EqualsBuilder.reflectionEquals(generated.get(i), reflected.get(i)));
+		}
+	}
+
+	static class Row {
+		@JCOValue("NAME")
+		String name = "init";
+		@JCOValue("COUNT")
+		int count = -1;
+		@JCOValue("COUNT")
+		Long countObject = -1L;
+		@JCOValue("COUNT")
+		String countText;
+		@JCOValue("NUMTEXT")
+		int numText = -1;
+		@JCOValue("NUMTEXT")
+		Integer numTextObject = -2;
+		@JCOValue("NUMTEXT")
+		BigDecimal numTextDecimal = BigDecimal.TEN;
+		@JCOValue("PRICE")
+		BigDecimal price = BigDecimal.TEN;
+		@JCOValue("PRICE")
+		double priceDouble = -1;
+		@JCOValue("PRICE")
+		String priceText;
+		@JCOValue("DAY")
+		Date day;
+		@JCOValue(value = "DAY", dateFormat = "yyyy.MM.dd")
+		String dayText;
+		@JCOValue("DAY")
+		LocalDate localDay;
+		@JCOValue("DAYTEXT")
+		LocalDate dayTextLocal = LocalDate.MIN;
+		@JCOValue("DAYTEXT")
+		Date dayTextDate;
+		@JCOValue("RATE")
+		double rate = -1;
+		@JCOValue("RATE")
+		Integer rateObject;
+		@JCOValue("MISSING")
+		String missing = "kept";
+	}
+
+	static class Bean {
+		@JCOValue("NAME")
+		private String name = "init";
+		@JCOValue("COUNT")
+		private int count = -1;
+		@JCOValue("NUMTEXT")
+		private int numText = -1;
+		@JCOValue("PRICE")
+		private BigDecimal price;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public int getNumText() {
+			return numText;
+		}
+
+		public void setNumText(int numText) {
+			this.numText = numText;
+		}
+
+		public BigDecimal getPrice() {
+			return price;
+		}
+
+		public void setPrice(BigDecimal price) {
+			this.price = price;
+		}
+	}
+
+	static class Unsupported {
+		@JCOValue("NAME")
+		Optional<String> name;
+	}
+}
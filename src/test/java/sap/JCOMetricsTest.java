@@ -0,0 +1,150 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JCOMetricsTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("IT_KEYS", 0, JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10))
+				.table("TABLE_NAME", 3,
+						JCOFakeBackend.column("STATUS", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row == 2 ? "UNKNOWN" : "OPEN";
+							}
+						}));
+		backend.function("FAIL_FUNCTION")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "E")
+				.table("TABLE_NAME", 1, JCOFakeBackend.column("STATUS", JCO.TYPE_CHAR, 10));
+		template.setBackend(backend);
+		template.setMetrics(new JCOMetrics() {
+			@Override
+			public void record(String functionName, Phase phase, long nanos) {
+				events.add(phase.name());
+			}
+
+			@Override
+			public void table(String functionName, String tableName, int rows, int columns, long bytes) {
+				events.add(tableName + ":" + rows);
+			}
+
+			@Override
+			public void error(String functionName, Phase phase, Throwable error) {
+				events.add("error:" + phase.name());
+			}
+		});
+	}
+
+	@Test
+	public void executeTable() throws Exception {
+		template.executeTable(input().addInputTable("IT_KEYS", Collections.singletonMap("KEY", "K")), HashMap.class);
+		assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "TABLE_NAME:3", "MAPPING")));
+	}
+
+	@Test
+	public void executeOutput() throws Exception {
+		template.executeOutput(JCOInput.of("FUNCTION_NAME"), HashMap.class);
+		assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "MAPPING")));
+	}
+
+	@Test
+	public void failureState() throws Exception {
+		try {
+			template.executeTable(JCOInput.of("FAIL_FUNCTION", "TABLE_NAME"), HashMap.class);
+			fail();
+		} catch (IllegalStateException e) {
+			assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "error:EXECUTE")));
+		}
+		events.clear();
+		try {
+			template.executeOutput(JCOInput.of("FAIL_FUNCTION"), HashMap.class);
+			fail();
+		} catch (IllegalStateException e) {
+			assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "error:EXECUTE")));
+		}
+	}
+
+	@Test
+	public void streamTable() throws Exception {
+		try (Stream<HashMap> stream = template.streamTable(input(), HashMap.class)) {
+			assertThat(stream.collect(Collectors.toList()).size(), is(3));
+			assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "TABLE_NAME:3")));
+		}
+		assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "TABLE_NAME:3", "MAPPING")));
+	}
+
+	@Test
+	public void forEachRow() throws Exception {
+		final List<HashMap> rows = new ArrayList<HashMap>();
+		template.forEachRow(input(), HashMap.class, new Consumer<HashMap>() {
+			public void accept(HashMap row) {
+				rows.add(row);
+			}
+		});
+		assertThat(rows.size(), is(3));
+		assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "TABLE_NAME:3", "MAPPING")));
+	}
+
+	@Test
+	public void mappingError() throws Exception {
+		try {
+			template.forEachRow(input(), Code.class, new Consumer<Code>() {
+				public void accept(Code row) {
+				}
+			});
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "TABLE_NAME:3", "error:MAPPING")));
+		}
+		events.clear();
+		try (Stream<Code> stream = template.streamTable(input(), Code.class)) {
+			stream.collect(Collectors.toList());
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "TABLE_NAME:3", "error:MAPPING", "MAPPING")));
+		}
+	}
+
+	@Test
+	public void consumerError() throws Exception {
+		try {
+			template.forEachRow(input(), HashMap.class, new Consumer<HashMap>() {
+				public void accept(HashMap row) {
+					throw new UnsupportedOperationException();
+				}
+			});
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertThat(events, is(Arrays.asList("CONNECT", "METADATA", "INPUT", "EXECUTE", "TABLE_NAME:3")));
+		}
+	}
+
+	JCOInput input() {
+		return JCOInput.of("FUNCTION_NAME", "TABLE_NAME");
+	}
+
+	enum Status {
+		OPEN
+	}
+
+	static class Code {
+		@JCOValue("STATUS")
+		Status status;
+	}
+}
@@ -0,0 +1,61 @@
+package sap;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class JCOPoolConfigTest {
+
+	@Test
+	public void of() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(JCOPoolConfig.MAX_CONNECTIONS, " 10 ");
+		properties.setProperty(JCOPoolConfig.MAX_POOL_SIZE, "20");
+		properties.setProperty(JCOPoolConfig.MAX_WAIT_TIME, "3000");
+		properties.setProperty(JCOPoolConfig.CONNECTION_TIMEOUT, "60000");
+		properties.setProperty(JCOPoolConfig.TIMEOUT_CHECK_PERIOD, "");
+
+		JCOPoolConfig config = JCOPoolConfig.of(properties);
+		assertThat(config.getMaxConnections(), is(10));
+		assertThat(config.getMaxPoolSize(), is(20));
+		assertThat(config.getMaxWaitTime(), is(3000L));
+		assertThat(config.getConnectionTimeout(), is(60000L));
+		assertThat(config.getTimeoutCheckPeriod(), is(0L));
+	}
+
+	@Test
+	public void defaults() throws Exception {
+		JCOPoolConfig config = JCOPoolConfig.of(new Properties());
+		assertThat(config.getMaxConnections(), is(5));
+		assertThat(config.getMaxPoolSize(), is(0));
+		assertThat(config, is(new JCOPoolConfig()));
+	}
+
+	@Test
+	public void equals() throws Exception {
+		JCOPoolConfig config = new JCOPoolConfig();
+		JCOPoolConfig copy = config.copy();
+		assertThat(copy, is(config));
+		assertThat(copy.hashCode(), is(config.hashCode()));
+		copy.setMaxWaitTime(1);
+		assertThat(copy, is(not(config)));
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void invalidNumber() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(JCOPoolConfig.MAX_CONNECTIONS, "ten");
+		JCOPoolConfig.of(properties);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxConnections() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(JCOPoolConfig.MAX_CONNECTIONS, "0");
+		JCOPoolConfig.of(properties);
+	}
+}
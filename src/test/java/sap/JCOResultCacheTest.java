@@ -0,0 +1,274 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JCOResultCacheTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	JCOResultCache cache = new JCOResultCache(2).cache("FUNCTION_NAME", 0, TimeUnit.MILLISECONDS);
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.input("IV_KEY", JCO.TYPE_CHAR, 10)
+				.input("IV_DATE", JCO.TYPE_DATE, 8)
+				.input("IV_RAW", JCO.TYPE_BYTE, 2)
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("FIELDS", 0, JCOFakeBackend.column("FIELDNAME", JCO.TYPE_CHAR, 30))
+				.table("TABLE_NAME", 2,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "NAME" + row;
+							}
+						}),
+						JCOFakeBackend.column("KEY", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "KEY" + row;
+							}
+						}));
+		backend.function("FAIL_FUNCTION")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "E")
+				.table("TABLE_NAME", 1, JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10));
+		template.setBackend(backend);
+		template.setResultCache(cache);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void hitAndMiss() throws Exception {
+		List<HashMap> first = template.executeTable(input("A"), HashMap.class);
+		List<HashMap> second = template.executeTable(input("A"), HashMap.class);
+		assertThat(second, is(first));
+		assertThat(backend.getExecutions(), is(1L));
+		assertThat(cache.getHitCount(), is(1L));
+		assertThat(cache.getMissCount(), is(1L));
+
+		template.executeTable(input("B"), HashMap.class);
+		assertThat(backend.getExecutions(), is(2L));
+		template.executeTable(input("A"), Row.class);
+		assertThat(backend.getExecutions(), is(3L));
+		assertThat(cache.getLoadCount(), is(3L));
+	}
+
+	@Test
+	public void uncachedFunction() throws Exception {
+		try {
+			template.executeTable(JCOInput.of("FAIL_FUNCTION", "TABLE_NAME"), HashMap.class);
+			fail();
+		} catch (IllegalStateException e) {
+			assertThat(cache.getMissCount(), is(0L));
+		}
+	}
+
+	@Test
+	public void failureNotCached() throws Exception {
+		cache.cache("FAIL_FUNCTION", 0, TimeUnit.MILLISECONDS);
+		for (int i = 0; i < 2; i++) {
+			try {
+				template.executeTable(JCOInput.of("FAIL_FUNCTION", "TABLE_NAME"), HashMap.class);
+				fail();
+			} catch (IllegalStateException e) {
+				assertThat(backend.getExecutions(), is(i + 1L));
+			}
+		}
+		assertThat(cache.size(), is(0));
+	}
+
+	@Test
+	public void sharedRows() throws Exception {
+		List<Row> first = template.executeTable(input("A"), Row.class);
+		List<Row> second = template.executeTable(input("A"), Row.class);
+		assertThat(second.get(0), is(sameInstance(first.get(0))));
+		try {
+			first.add(new Row());
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertThat(second.size(), is(2));
+		}
+	}
+
+	@Test
+	public void singleFlight() throws Exception {
+		backend.function("FUNCTION_NAME").latency(200, TimeUnit.MILLISECONDS);
+		List<Future<List<HashMap>>> futures = new ArrayList<Future<List<HashMap>>>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(executor.submit(new Callable<List<HashMap>>() {
+				@Override
+				public List<HashMap> call() throws Exception {
+					return template.executeTable(input("A"), HashMap.class);
+				}
+			}));
+		}
+		for (Future<List<HashMap>> future : futures) {
+			assertThat(future.get().size(), is(2));
+		}
+		assertThat(backend.getExecutions(), is(1L));
+		assertThat(cache.getLoadCount(), is(1L));
+	}
+
+	@Test
+	public void timeToLive() throws Exception {
+		cache.cache("FUNCTION_NAME", 50, TimeUnit.MILLISECONDS);
+		template.executeTable(input("A"), HashMap.class);
+		template.executeTable(input("A"), HashMap.class);
+		assertThat(backend.getExecutions(), is(1L));
+		Thread.sleep(100);
+		template.executeTable(input("A"), HashMap.class);
+		assertThat(backend.getExecutions(), is(2L));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeTimeToLive() throws Exception {
+		cache.cache("FUNCTION_NAME", -1, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void eviction() throws Exception {
+		template.executeTable(input("A"), HashMap.class);
+		template.executeTable(input("B"), HashMap.class);
+		template.executeTable(input("A"), HashMap.class);
+		template.executeTable(input("C"), HashMap.class);
+		assertThat(cache.getEvictionCount(), is(1L));
+		assertThat(cache.size(), is(2));
+		assertThat(backend.getExecutions(), is(3L));
+
+		// B was the least recently used
+		template.executeTable(input("A"), HashMap.class);
+		assertThat(backend.getExecutions(), is(3L));
+		template.executeTable(input("B"), HashMap.class);
+		assertThat(backend.getExecutions(), is(4L));
+	}
+
+	@Test
+	public void projection() throws Exception {
+		template.executeTable(input("A").project("TABLE_NAME", "NAME"), HashMap.class);
+		List<HashMap> all = template.executeTable(input("A"), HashMap.class);
+		assertThat(backend.getExecutions(), is(2L));
+		assertThat(all.get(0).size(), is(2));
+	}
+
+	@Test
+	public void pushdown() throws Exception {
+		template.executeTable(input("A").project("TABLE_NAME", "NAME").pushdown("TABLE_NAME", "FIELDS", "FIELDNAME"), HashMap.class);
+		template.executeTable(input("A").project("TABLE_NAME", "KEY").pushdown("TABLE_NAME", "FIELDS", "FIELDNAME"), HashMap.class);
+		assertThat(backend.getExecutions(), is(2L));
+		template.executeTable(input("A").project("TABLE_NAME", "KEY"), HashMap.class);
+		assertThat(backend.getExecutions(), is(3L));
+		template.executeTable(input("A").project("TABLE_NAME", "KEY").pushdown("TABLE_NAME", "FIELDS", "FIELDNAME"), HashMap.class);
+		assertThat(backend.getExecutions(), is(3L));
+	}
+
+	@Test
+	public void pushdownOutputClass() throws Exception {
+		template.executeTable(input("A").pushdown("TABLE_NAME", "FIELDS", "FIELDNAME"), Row.class);
+		template.executeTable(input("A").project("TABLE_NAME", Row.class).pushdown("TABLE_NAME", "FIELDS", "FIELDNAME"), Row.class);
+		assertThat(backend.getExecutions(), is(1L));
+		template.executeTable(input("A").pushdown("TABLE_NAME", "FIELDS", "FIELDNAME"), Name.class);
+		assertThat(backend.getExecutions(), is(2L));
+	}
+
+	@Test
+	public void valueObjectInput() throws Exception {
+		template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(new Key("A")), HashMap.class);
+		template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(new Key("A")), HashMap.class);
+		assertThat(backend.getExecutions(), is(1L));
+		template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(new Key("B")), HashMap.class);
+		assertThat(backend.getExecutions(), is(2L));
+	}
+
+	@Test
+	public void otherSystem() throws Exception {
+		template.executeTable(input("A"), HashMap.class);
+		JCOTemplate other = new JCOTemplate();
+		JCOFakeBackend otherBackend = new JCOFakeBackend();
+		otherBackend.function("FUNCTION_NAME")
+				.input("IV_KEY", JCO.TYPE_CHAR, 10)
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("TABLE_NAME", 1, JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10));
+		other.setBackend(otherBackend);
+		other.setResultCache(cache);
+		// the same call of another system is not a hit
+		assertThat(other.executeTable(input("A"), HashMap.class).size(), is(1));
+		assertThat(otherBackend.getExecutions(), is(1L));
+		assertThat(template.executeTable(input("A"), HashMap.class).size(), is(2));
+		assertThat(backend.getExecutions(), is(1L));
+	}
+
+	@Test
+	public void inputCopied() throws Exception {
+		Date date = new Date(0);
+		Map<String, Object> values = new HashMap<String, Object>();
+		values.put("IV_KEY", "A");
+		values.put("IV_DATE", date);
+		values.put("IV_RAW", new byte[] { 1, 2 });
+		template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(values), HashMap.class);
+
+		// an equal input hits, an array is keyed by its elements
+		values.put("IV_DATE", new Date(0));
+		values.put("IV_RAW", new byte[] { 1, 2 });
+		template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(values), HashMap.class);
+		assertThat(backend.getExecutions(), is(1L));
+
+		// the date modified after the call does not change the cached key
+		date.setTime(1000);
+		values.put("IV_DATE", date);
+		template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(values), HashMap.class);
+		assertThat(backend.getExecutions(), is(2L));
+	}
+
+	@Test
+	public void inputWithoutValues() throws Exception {
+		try {
+			template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(new Object()), HashMap.class);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertThat(backend.getExecutions(), is(0L));
+		}
+		try {
+			template.executeTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME").addInputTable("FIELDS", new Object()), HashMap.class);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertThat(backend.getExecutions(), is(0L));
+		}
+	}
+
+	static JCOInput input(String key) {
+		return JCOInput.of("FUNCTION_NAME", "TABLE_NAME").input(Collections.<String, Object> singletonMap("IV_KEY", key));
+	}
+
+	static class Key {
+		@JCOValue("IV_KEY")
+		String key;
+
+		Key(String key) {
+			this.key = key;
+		}
+	}
+
+	static class Row {
+		@JCOValue("NAME")
+		String name;
+		@JCOValue("KEY")
+		String key;
+	}
+
+	static class Name {
+		@JCOValue("NAME")
+		String name;
+	}
+}
@@ -0,0 +1,116 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JCORowMapTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	JCOInput input = JCOInput.of("FUNCTION_NAME", "TABLE_NAME");
+	JCORowMap row;
+	HashMap<String, Object> expected;
+
+	@Before
+	public void setUp() throws Exception {
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.output("EV_NAME", JCO.TYPE_CHAR, 10, "OUTPUT")
+				.table("TABLE_NAME", 2,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "NAME" + row;
+							}
+						}),
+						JCOFakeBackend.column("KEY", JCO.TYPE_INT, 4, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row;
+							}
+						}),
+						JCOFakeBackend.column("PRICE", JCO.TYPE_BCD, 9, 2, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return new BigDecimal(row).movePointLeft(2);
+							}
+						}));
+		template.setBackend(backend);
+		row = template.executeTable(input, JCORowMap.class).get(1);
+		expected = template.executeTable(input, HashMap.class).get(1);
+	}
+
+	@Test
+	public void get() throws Exception {
+		assertThat(row.size(), is(expected.size()));
+		for (String key : expected.keySet()) {
+			assertThat(row.containsKey(key), is(true));
+			assertThat(row.get(key), is(expected.get(key)));
+		}
+		assertThat(row.get("UNKNOWN"), is(nullValue()));
+		assertThat(row.containsKey("UNKNOWN"), is(false));
+	}
+
+	@Test
+	public void entrySet() throws Exception {
+		assertThat(new ArrayList<String>(row.keySet()), is(Arrays.asList("NAME", "KEY", "PRICE")));
+		assertThat(row.entrySet(), is(expected.entrySet()));
+		assertThat(row, is((Map<String, Object>) expected));
+		assertThat(expected, is((Map<String, Object>) row));
+		assertThat(row.hashCode(), is(expected.hashCode()));
+		assertThat(row.toString(), is("{NAME=NAME1, KEY=1, PRICE=0.01}"));
+	}
+
+	@Test
+	public void put() throws Exception {
+		assertThat(row.put("NAME", "CHANGED"), is(expected.put("NAME", "CHANGED")));
+		assertThat(row.put("OTHER", "X"), is(expected.put("OTHER", "X")));
+		assertThat(row.remove("KEY"), is(expected.remove("KEY")));
+		assertThat(row.remove("KEY"), is(nullValue()));
+		assertThat(row, is((Map<String, Object>) expected));
+		assertThat(new ArrayList<String>(row.keySet()), is(Arrays.asList("NAME", "PRICE", "OTHER")));
+
+		assertThat(row.put("KEY", 2), is(nullValue()));
+		expected.put("KEY", 2);
+		assertThat(row, is((Map<String, Object>) expected));
+
+		Iterator<Map.Entry<String, Object>> entries = row.entrySet().iterator();
+		entries.next().setValue("ITERATED");
+		entries.next();
+		entries.remove();
+		expected.put("NAME", "ITERATED");
+		expected.remove("KEY");
+		assertThat(row, is((Map<String, Object>) expected));
+
+		row.clear();
+		assertThat(row.isEmpty(), is(true));
+		assertThat(row.entrySet().iterator().hasNext(), is(false));
+	}
+
+	@Test
+	public void serialize() throws Exception {
+		row.put("OTHER", "X");
+		row.remove("KEY");
+		JCORowMap copy = SerializationUtils.roundtrip(row);
+		assertThat(copy, is((Map<String, Object>) row));
+		assertThat(new ArrayList<String>(copy.keySet()), is(Arrays.asList("NAME", "PRICE", "OTHER")));
+		copy.put("KEY", 3);
+		assertThat(copy.get("KEY"), is((Object) 3));
+	}
+
+	@Test
+	public void executeOutput() throws Exception {
+		JCORowMap output = template.executeOutput(JCOInput.of("FUNCTION_NAME"), JCORowMap.class);
+		assertThat(output, is((Map<String, Object>) template.executeOutput(JCOInput.of("FUNCTION_NAME"), HashMap.class)));
+		assertThat(output.get("EV_NAME"), is((Object) "OUTPUT"));
+		// the fields of the record are the columns of the schema
+		assertThat(FieldUtils.readField(output, "others", true), is(nullValue()));
+		output.put("EV_NAME", "CHANGED");
+		assertThat(FieldUtils.readField(output, "others", true), is(nullValue()));
+	}
+}
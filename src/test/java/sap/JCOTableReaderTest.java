@@ -0,0 +1,130 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class JCOTableReaderTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	JCOInput input = JCOInput.of("FUNCTION_NAME", "TABLE_NAME");
+
+	@Before
+	public void setUp() {
+		final Date day = new GregorianCalendar(2017, Calendar.MARCH, 1, 12, 30).getTime();
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("TABLE_NAME", 500,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row % 3 == 0 ? "" : "NAME" + row;
+							}
+						}),
+						JCOFakeBackend.column("KEY", JCO.TYPE_INT, 4, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row;
+							}
+						}),
+						JCOFakeBackend.column("NUM", JCO.TYPE_NUM, 6, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row;
+							}
+						}),
+						JCOFakeBackend.column("PRICE", JCO.TYPE_BCD, 9, 2, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return new BigDecimal(row).movePointLeft(2);
+							}
+						}),
+						JCOFakeBackend.column("DAY", JCO.TYPE_DATE, 8, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row % 4 == 0 ? null : day;
+							}
+						}),
+						JCOFakeBackend.column("TIME", JCO.TYPE_TIME, 6, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return day;
+							}
+						}),
+						JCOFakeBackend.column("RATE", JCO.TYPE_FLOAT, 8, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row / 8d;
+							}
+						}));
+		template.setBackend(backend);
+	}
+
+	@Test
+	public void readParallelAnnotation() throws Exception {
+		template.setGeneratedMappers(false);
+		assertSame(Row.class);
+	}
+
+	@Test
+	public void readParallelGenerated() throws Exception {
+		assertSame(Row.class);
+	}
+
+	@Test
+	public void readParallelMap() throws Exception {
+		assertSame(HashMap.class);
+		assertSame(JCORowMap.class);
+	}
+
+	@Test
+	public void readParallelProjection() throws Exception {
+		input.project("TABLE_NAME", "KEY", "DAY");
+		assertSame(Row.class);
+		assertSame(HashMap.class);
+	}
+
+	private <T> void assertSame(Class<T> outputClass) throws Exception {
+		template.setParallelMappingThreshold(0);
+		List<T> serial = template.executeTable(input, outputClass);
+		template.setParallelMappingThreshold(10);
+		List<T> parallel = template.executeTable(input, outputClass);
+		assertThat(parallel.size(), is(serial.size()));
+		for (int i = 0; i < serial.size(); i++) {
+			if (serial.get(i) instanceof Map) {
+				assertThat(parallel.get(i), is(serial.get(i)));
+			} else {
+				assertTrue(ToStringBuilder.reflectionToString(parallel.get(i)), EqualsBuilder.reflectionEquals(serial.get(i), parallel.get(i)));
+			}
+		}
+	}
+
+	static class Row {
+		@JCOValue("NAME")
+		String name;
+		@JCOValue("KEY")
+		int key = -1;
+		@JCOValue("KEY")
+		String keyText;
+		@JCOValue("NUM")
+		int num = -1;
+		@JCOValue("NUM")
+		String numText;
+		@JCOValue("PRICE")
+		BigDecimal price;
+		@JCOValue("PRICE")
+		int priceInt;
+		@JCOValue("DAY")
+		Date day;
+		@JCOValue("DAY")
+		String dayText;
+		@JCOValue("TIME")
+		String time;
+		@JCOValue("RATE")
+		double rate;
+		@JCOValue("RATE")
+		String rateText;
+	}
+}
@@ -0,0 +1,67 @@
+package sap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JCOTablesTest {
+
+	@Test
+	public void addAll() throws Exception {
+		JCOTables first = new JCOTables();
+		first.put("A", new ArrayList<String>(Arrays.asList("a1", "a2")));
+		JCOTables second = new JCOTables();
+		second.put("A", Arrays.asList("a3"));
+		second.put("B", Arrays.asList("b1"));
+
+		JCOInput input = JCOInput.of("FUNCTION_NAME");
+		JCOTables result = new JCOTables();
+		result.addAll(first, input);
+		result.addAll(second, input);
+		assertThat(result.<String> table("A"), is(Arrays.asList("a1", "a2", "a3")));
+		assertThat(result.<String> table("B"), is(Arrays.asList("b1")));
+		assertThat(first.<String> table("A"), is(Arrays.asList("a1", "a2")));
+		assertThat(result.table("C"), is(nullValue()));
+	}
+
+	@Test
+	public void addAllMerged() throws Exception {
+		JCOTables first = new JCOTables();
+		first.put("A", Arrays.asList("a1"));
+		first.put("B", Arrays.asList("b1"));
+		JCOTables second = new JCOTables();
+		second.put("A", Arrays.asList("a2"));
+		second.put("B", Arrays.asList("b1"));
+
+		JCOInput input = JCOInput.of("FUNCTION_NAME").chunk("IT_KEYS", 1, "A");
+		JCOTables result = new JCOTables();
+		result.addAll(first, input);
+		result.addAll(second, input);
+		assertThat(result.<String> table("A"), is(Arrays.asList("a1", "a2")));
+		assertThat(result.<String> table("B"), is(Arrays.asList("b1")));
+	}
+
+	@Test
+	public void unmodifiable() throws Exception {
+		JCOTables tables = new JCOTables();
+		List<String> rows = new ArrayList<String>(Arrays.asList("a1"));
+		tables.put("A", rows);
+		tables.put("B", null);
+
+		JCOTables unmodifiable = tables.unmodifiable();
+		assertThat(unmodifiable.<String> table("A"), is(Arrays.asList("a1")));
+		assertThat(unmodifiable.table("B"), is(nullValue()));
+		try {
+			unmodifiable.<String> table("A").add("a2");
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertThat(rows, is(Arrays.asList("a1")));
+		}
+	}
+}
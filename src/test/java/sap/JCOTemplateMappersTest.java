@@ -0,0 +1,136 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.Ordered;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JCOTemplateMappersTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+	JCOInput input = JCOInput.of("FUNCTION_NAME", "TABLE_NAME");
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("TABLE_NAME", 2,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "NAME" + row;
+							}
+						}));
+		template.setBackend(backend);
+	}
+
+	@Test
+	public void generated() throws Exception {
+		assertThat(JCOGeneratedMappers.find(Name.class), is(notNullValue()));
+		assertThat(template.selectMapper(Name.class), is(instanceOf(JCOGeneratedMappers.Lookup.class)));
+		assertThat(template.executeTable(input, Name.class).get(1).name, is("NAME1"));
+
+		template.setGeneratedMappers(false);
+		assertThat(template.selectMapper(Name.class), is(instanceOf(JCOAnnotationMapper.class)));
+		assertThat(template.executeTable(input, Name.class).get(1).name, is("NAME1"));
+	}
+
+	@Test
+	public void addedMapperOverridesGenerated() throws Exception {
+		assertThat(template.selectMapper(Name.class), is(instanceOf(JCOGeneratedMappers.Lookup.class)));
+		FixedMapper fixed = new FixedMapper(Ordered.LOWEST_PRECEDENCE);
+		template.addMapper(fixed);
+		assertThat(template.selectMapper(Name.class), is(sameInstance((JCOMapper) fixed)));
+		assertThat(template.executeOutput(JCOInput.of("FUNCTION_NAME"), Name.class).name, is("FIXED"));
+	}
+
+	@Test
+	public void setMappersKeepsGenerated() throws Exception {
+		template.setMappers(Arrays.<JCOMapper> asList(new JCOMapMapper(), new JCOAnnotationMapper()));
+		assertThat(template.selectMapper(Name.class), is(instanceOf(JCOGeneratedMappers.Lookup.class)));
+		assertThat(template.selectMapper(Other.class), is(instanceOf(JCOAnnotationMapper.class)));
+
+		FixedMapper fixed = new FixedMapper(0);
+		template.setMappers(Arrays.<JCOMapper> asList(fixed, new JCOAnnotationMapper()));
+		assertThat(template.selectMapper(Name.class), is(sameInstance((JCOMapper) fixed)));
+	}
+
+	@Test
+	public void callerMappersNotModified() throws Exception {
+		JCOConverters own = new JCOConverters();
+		JCOAnnotationMapper set = new JCOAnnotationMapper(own);
+		template.setMappers(Arrays.<JCOMapper> asList(set));
+		template.setConverters(new JCOConverters());
+		assertThat(set.getConverters(), is(sameInstance(own)));
+
+		JCOAnnotationMapper added = new JCOAnnotationMapper(own);
+		template.addMapper(added);
+		template.setConverters(new JCOConverters());
+		assertThat(added.getConverters(), is(sameInstance(own)));
+	}
+
+	@Test
+	public void mapperAddedDuringSelection() throws Exception {
+		final FixedMapper fixed = new FixedMapper(0);
+		template.addMapper(new FixedMapper(1) {
+			@Override
+			public boolean canRead(Class<?> output) {
+				// another thread adds a mapper while this one is selected
+				template.addMapper(fixed);
+				return true;
+			}
+		});
+		assertThat(template.selectMapper(Name.class), is(not(sameInstance((JCOMapper) fixed))));
+		assertThat(template.selectMapper(Name.class), is(sameInstance((JCOMapper) fixed)));
+	}
+
+	@Test
+	public void generatedTableMapping() throws Exception {
+		List<Name> names = template.executeTable(input.project("TABLE_NAME", "NAME"), Name.class);
+		assertThat(names.get(0).name, is("NAME0"));
+	}
+
+	static class FixedMapper implements JCOMapper<Object>, Ordered {
+		private final int order;
+
+		FixedMapper(int order) {
+			this.order = order;
+		}
+
+		@Override
+		public boolean canRead(Class<?> output) {
+			return output == Name.class;
+		}
+
+		@Override
+		public void mapping(JCO.Field field, Object target) {
+			((Name) target).name = "FIXED";
+		}
+
+		@Override
+		public void input(JCO.Record jcoObject, Object source) {
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+
+	static class Name {
+		@JCOValue("NAME")
+		String name;
+	}
+
+	static class Other {
+		@JCOValue("NAME")
+		String name;
+		@JCOValue("NAME")
+		Thread unsupported;
+	}
+}
@@ -0,0 +1,94 @@
+package sap;
+
+import com.sap.mw.jco.JCO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class JCOTemplateRowsTest {
+	JCOTemplate template = new JCOTemplate();
+	JCOFakeBackend backend = new JCOFakeBackend();
+
+	@Before
+	public void setUp() {
+		backend.function("FUNCTION_NAME")
+				.output("EV_RETCD", JCO.TYPE_CHAR, 1, "S")
+				.table("TABLE_NAME", 3,
+						JCOFakeBackend.column("NAME", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return "NAME" + row;
+							}
+						}),
+						// the second row is blank
+						JCOFakeBackend.column("AMOUNT", JCO.TYPE_CHAR, 10, new JCOFakeBackend.Values() {
+							public Object value(int row) {
+								return row == 1 ? "" : String.valueOf(row * 10);
+							}
+						}));
+		template.setBackend(backend);
+	}
+
+	@Test
+	public void forEachRow() throws Exception {
+		final List<Result> rows = new ArrayList<Result>();
+		final List<Integer> amounts = new ArrayList<Integer>();
+		int size = template.forEachRow(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), Result.class, new Consumer<Result>() {
+			public void accept(Result row) {
+				rows.add(row);
+				amounts.add(row.amount);
+			}
+		});
+		assertThat(size, is(3));
+		// one instance is reused for every row
+		assertThat(rows.get(1), is(sameInstance(rows.get(0))));
+		assertThat(rows.get(2), is(sameInstance(rows.get(0))));
+		assertThat(rows.get(2).name, is("NAME2"));
+		assertThat(amounts.get(0), is(0));
+		assertThat(amounts.get(1), is(nullValue()));
+		assertThat(amounts.get(2), is(20));
+	}
+
+	@Test
+	public void forEachRowOfMaps() throws Exception {
+		final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+		template.forEachRow(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), HashMap.class, new Consumer<HashMap>() {
+			@SuppressWarnings("unchecked")
+			public void accept(HashMap row) {
+				rows.add(new HashMap<String, Object>(row));
+			}
+		});
+		assertThat(rows.size(), is(3));
+		assertThat(rows.get(1).get("NAME"), is((Object) "NAME1"));
+		assertThat(rows.get(1).get("AMOUNT"), is((Object) ""));
+		assertThat(rows.get(2).get("AMOUNT"), is((Object) "20"));
+	}
+
+	@Test
+	public void streamTable() throws Exception {
+		try (Stream<Result> stream = template.streamTable(JCOInput.of("FUNCTION_NAME", "TABLE_NAME"), Result.class)) {
+			List<Result> rows = stream.collect(Collectors.<Result> toList());
+			assertThat(rows.size(), is(3));
+			assertThat(rows.get(1).amount, is(nullValue()));
+			assertThat(rows.get(2).amount, is(20));
+		}
+	}
+
+	static class Result {
+		@JCOValue("NAME")
+		String name;
+		@JCOValue("AMOUNT")
+		Integer amount;
+	}
+}